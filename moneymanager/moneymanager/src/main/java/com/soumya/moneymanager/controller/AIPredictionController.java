@@ -4,6 +4,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.soumya.moneymanager.dto.AIPredictionResponse;
@@ -19,8 +20,9 @@ public class AIPredictionController {
   private final AIPredictionService aiPredictionService;
 
   @GetMapping("/{userId}")
-  public ResponseEntity<AIPredictionResponse> getAIPrediction(@PathVariable Long userId) {
-    AIPredictionResponse resp = aiPredictionService.getPredictionForUser(userId);
+  public ResponseEntity<AIPredictionResponse> getAIPrediction(@PathVariable Long userId,
+      @RequestParam(required = false) Integer months) {
+    AIPredictionResponse resp = aiPredictionService.getPredictionForUser(userId, months);
     return ResponseEntity.ok(resp);
   }
 }
@@ -7,11 +7,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.soumya.moneymanager.entity.ProfileEntity;
 import com.soumya.moneymanager.service.AdminService;
+import com.soumya.moneymanager.service.MailQueueService;
+import com.soumya.moneymanager.service.MonthlyRollupService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -21,6 +24,8 @@ import lombok.RequiredArgsConstructor;
 public class AdminController {
 
   private final AdminService adminService;
+  private final MonthlyRollupService monthlyRollupService;
+  private final MailQueueService mailQueueService;
 
   @GetMapping("/users")
   public ResponseEntity<?> listUsers() {
@@ -46,4 +51,38 @@ public class AdminController {
     }
     return ResponseEntity.ok(adminService.transactionsForUser(userId));
   }
+
+  @PostMapping("/rollups/rebuild")
+  public ResponseEntity<?> rebuildRollups() {
+    if (!adminService.isCurrentUserAdmin()) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required"));
+    }
+    int profiles = monthlyRollupService.rebuildAll();
+    return ResponseEntity.ok(Map.of("profilesRebuilt", profiles));
+  }
+
+  @PostMapping("/rollups/rebuild/{userId}")
+  public ResponseEntity<?> rebuildRollupsForUser(@PathVariable Long userId) {
+    if (!adminService.isCurrentUserAdmin()) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required"));
+    }
+    monthlyRollupService.rebuildForProfile(userId);
+    return ResponseEntity.ok(Map.of("profilesRebuilt", 1));
+  }
+
+  @GetMapping("/mail/queue")
+  public ResponseEntity<?> mailQueueStats() {
+    if (!adminService.isCurrentUserAdmin()) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required"));
+    }
+    return ResponseEntity.ok(mailQueueService.getQueueStats());
+  }
+
+  @PostMapping("/mail/requeue-dead")
+  public ResponseEntity<?> requeueDeadMail() {
+    if (!adminService.isCurrentUserAdmin()) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required"));
+    }
+    return ResponseEntity.ok(Map.of("requeued", mailQueueService.requeueDead()));
+  }
 }
@@ -34,12 +34,22 @@ public class BudgetController {
 
   /**
    * GET /api/budget?month=YYYY-MM&userId= - Get all budgets for user and month
+   * GET /api/budget?from=YYYY-MM&to=YYYY-MM&userId= - Budget vs actual for a range of months
    */
   @GetMapping
   public ResponseEntity<List<CategoryBudgetDTO>> getBudgets(
-      @RequestParam String month,
+      @RequestParam(required = false) String month,
+      @RequestParam(required = false) String from,
+      @RequestParam(required = false) String to,
       @RequestParam(required = false) Long userId) {
-    List<CategoryBudgetDTO> budgets = categoryBudgetService.getBudgetsForMonth(month, userId);
+    List<CategoryBudgetDTO> budgets;
+    if (from != null && to != null) {
+      budgets = categoryBudgetService.getBudgetsForMonthRange(from, to, userId);
+    } else if (month != null) {
+      budgets = categoryBudgetService.getBudgetsForMonth(month, userId);
+    } else {
+      throw new RuntimeException("Either month or both from and to are required (YYYY-MM)");
+    }
     return ResponseEntity.ok(budgets);
   }
 }
@@ -9,9 +9,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.soumya.moneymanager.dto.CommentDTO;
+import com.soumya.moneymanager.dto.CursorPageDTO;
 import com.soumya.moneymanager.dto.PostDTO;
 import com.soumya.moneymanager.service.CommunityService;
 
@@ -30,6 +32,13 @@ public class CommunityController {
     return ResponseEntity.ok(communityService.getAllPosts());
   }
 
+  @GetMapping("/feed")
+  public ResponseEntity<CursorPageDTO<PostDTO>> feed(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok(communityService.getFeed(cursor, limit));
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<PostDTO> getPost(@PathVariable Long id) {
     return ResponseEntity.ok(communityService.getPost(id));
@@ -40,6 +49,14 @@ public class CommunityController {
     return ResponseEntity.ok(communityService.createPost(req.getContent()));
   }
 
+  @GetMapping("/{id}/comments")
+  public ResponseEntity<CursorPageDTO<CommentDTO>> comments(
+      @PathVariable Long id,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok(communityService.getComments(id, cursor, limit));
+  }
+
   @PostMapping("/{id}/comments")
   public ResponseEntity<CommentDTO> addComment(@PathVariable Long id, @RequestBody AddCommentRequest req) {
     return ResponseEntity.ok(communityService.addComment(id, req.getContent()));
@@ -23,7 +23,7 @@ public class EmailController {
     @GetMapping("/income-excel")
     public ResponseEntity<String> emailIncomeExcel() {
         try {
-            String toEmail = profileService.getCurrentProfile().getEmail();
+            String toEmail = profileService.getCurrentEmail();
 
             byte[] excelBytes = excelExportService.generateIncomeExcel();
 
@@ -35,7 +35,7 @@ public class EmailController {
                     excelBytes
             );
 
-            return ResponseEntity.ok("Email sent successfully to " + toEmail);
+            return ResponseEntity.ok("Email queued for " + toEmail);
 
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Failed to send email: " + e.getMessage());
@@ -46,7 +46,7 @@ public class EmailController {
         try {
             // Generate Excel file
             byte[] excelBytes = excelExportService.generateExpenseExcel();
-            String toEmail = profileService.getCurrentProfile().getEmail();
+            String toEmail = profileService.getCurrentEmail();
 
             // Send email with attachment
             emailService.sendEmailWithAttachment(
@@ -58,7 +58,7 @@ public class EmailController {
                     excelBytes
             );
 
-            return ResponseEntity.ok("Expense Excel emailed successfully to !"+toEmail);
+            return ResponseEntity.ok("Expense Excel queued for "+toEmail);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body("Failed to send expense excel: " + e.getMessage());
@@ -0,0 +1,36 @@
+package com.soumya.moneymanager.controller;
+
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.soumya.moneymanager.service.LiveEventService;
+import com.soumya.moneymanager.service.ProfileService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/events")
+@RequiredArgsConstructor
+public class EventStreamController {
+
+  private final LiveEventService liveEventService;
+  private final ProfileService profileService;
+
+  // Called with the normal Authorization header right before opening (or reopening) the stream
+  @PostMapping("/token")
+  public Map<String, String> streamToken() {
+    return Map.of("token", profileService.issueEventStreamToken());
+  }
+
+  // EventSource cannot send headers, so this path takes a token from /events/token as ?token= (see JwtRequestFilter)
+  @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter stream() {
+    return liveEventService.subscribe(profileService.getCurrentProfileId());
+  }
+}
@@ -6,8 +6,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.soumya.moneymanager.service.ExcelExportService;
+import com.soumya.moneymanager.service.ProfileService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -17,22 +19,27 @@ import lombok.RequiredArgsConstructor;
 public class ExcelDownloadController {
 
     private final ExcelExportService excelExportService;
+    private final ProfileService profileService;
 
     @GetMapping("/income")
-    public ResponseEntity<byte[]> downloadIncomeExcel() {
-        byte[] excelBytes = excelExportService.generateIncomeExcel();
+    public ResponseEntity<StreamingResponseBody> downloadIncomeExcel() {
+        // Resolved here: the body is written on an async thread without the security context
+        Long profileId = profileService.getCurrentProfileId();
+        StreamingResponseBody body = out -> excelExportService.writeIncomeExcel(profileId, out);
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=income_details.xlsx")
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(excelBytes);
+                .body(body);
     }
     
     @GetMapping("/expense")
-    public ResponseEntity<byte[]> downloadExpenseExcel() {
-        byte[] excelBytes = excelExportService.generateExpenseExcel();
+    public ResponseEntity<StreamingResponseBody> downloadExpenseExcel() {
+        // Resolved here: the body is written on an async thread without the security context
+        Long profileId = profileService.getCurrentProfileId();
+        StreamingResponseBody body = out -> excelExportService.writeExpenseExcel(profileId, out);
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=expense_details.xlsx")
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(excelBytes);
+                .body(body);
     }
 }
@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.soumya.moneymanager.dto.CursorPageDTO;
 import com.soumya.moneymanager.dto.ExpenseDTO;
 import com.soumya.moneymanager.service.ExpenseService;
 
@@ -42,6 +43,20 @@ public class ExpenseController {
     return ResponseEntity.status(HttpStatus.OK).body(expenses);
   }
 
+  // Cursor-paginated listing: pass the returned nextCursor to fetch the following page
+  @GetMapping("/page")
+  public ResponseEntity<CursorPageDTO<ExpenseDTO>> getExpensesPage(
+      @RequestParam(required = false) LocalDate startDate,
+      @RequestParam(required = false) LocalDate endDate,
+      @RequestParam(required = false) String keyword,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false, defaultValue = "desc") String sortOrder
+  ){
+    CursorPageDTO<ExpenseDTO> page=expenseService.getExpensesPage(startDate, endDate, keyword, cursor, limit, "asc".equalsIgnoreCase(sortOrder));
+    return ResponseEntity.ok(page);
+  }
+
   @DeleteMapping("/{id}")
   public ResponseEntity<Void> deleteExpense(@PathVariable Long id) {
  
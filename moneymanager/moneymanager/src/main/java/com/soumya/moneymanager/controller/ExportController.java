@@ -1,13 +1,24 @@
 package com.soumya.moneymanager.controller;
 
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.soumya.moneymanager.dto.ExportJobDTO;
+import com.soumya.moneymanager.service.ExportJobService;
 import com.soumya.moneymanager.service.ExportService;
 
 import lombok.RequiredArgsConstructor;
@@ -18,22 +29,52 @@ import lombok.RequiredArgsConstructor;
 public class ExportController {
 
   private final ExportService exportService;
+  private final ExportJobService exportJobService;
 
   @GetMapping("/pdf/{userId}")
-  public ResponseEntity<byte[]> exportPdf(@PathVariable Long userId) {
-    byte[] bytes = exportService.exportPdf(userId);
+  public ResponseEntity<StreamingResponseBody> exportPdf(@PathVariable Long userId) {
+    // Pages are written to the response as the table is flushed
+    StreamingResponseBody body = out -> exportService.writePdf(userId, out);
     return ResponseEntity.ok()
         .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=finance_export_" + userId + ".pdf")
         .contentType(MediaType.APPLICATION_PDF)
-        .body(bytes);
+        .body(body);
   }
 
   @GetMapping("/csv/{userId}")
-  public ResponseEntity<byte[]> exportCsv(@PathVariable Long userId) {
-    byte[] bytes = exportService.exportCsv(userId);
+  public ResponseEntity<StreamingResponseBody> exportCsv(@PathVariable Long userId) {
+    // Rows are written to the response as they are read, so the first bytes go out before the query completes
+    StreamingResponseBody body = out -> exportService.writeCsv(userId, out);
     return ResponseEntity.ok()
         .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=finance_export_" + userId + ".csv")
         .contentType(MediaType.parseMediaType("text/csv"))
-        .body(bytes);
+        .body(body);
+  }
+
+  // Asynchronous exports: start a job, poll its status, then download the file.
+  // format is one of csv, pdf, income-xlsx, expense-xlsx
+  @PostMapping("/jobs")
+  public ResponseEntity<?> submitJob(@RequestBody Map<String, String> request) {
+    try {
+      ExportJobDTO job = exportJobService.submit(request.get("format"));
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+    }
+  }
+
+  @GetMapping("/jobs/{id}")
+  public ResponseEntity<ExportJobDTO> getJob(@PathVariable String id) {
+    return ResponseEntity.ok(exportJobService.getJob(id));
+  }
+
+  @GetMapping("/jobs/{id}/download")
+  public ResponseEntity<Resource> downloadJob(@PathVariable String id) {
+    ExportJobDTO job = exportJobService.getJob(id);
+    Path artifact = exportJobService.getArtifact(id);
+    return ResponseEntity.ok()
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.getFileName())
+        .contentType(MediaType.parseMediaType(exportJobService.contentType(id)))
+        .body(new FileSystemResource(artifact));
   }
 }
@@ -37,7 +37,21 @@ public class FilterController {
      String sortFIeld=filter.getSortField()!=null ? filter.getSortField() : "date";
      Sort.Direction direction  = "desc".equalsIgnoreCase(filter.getSortOrder()) ? Sort.Direction.DESC : Sort.Direction.ASC;
      Sort sort = Sort.by(direction,sortFIeld);
-     if("income".equalsIgnoreCase(filter.getType()))
+     boolean paged = filter.getCursor()!=null || filter.getLimit()!=null;
+     if(paged && !"date".equalsIgnoreCase(sortFIeld))
+     {
+       return ResponseEntity.badRequest().body("Paged results can only be sorted by date");
+     }
+     boolean ascending = direction == Sort.Direction.ASC;
+     if(paged && "income".equalsIgnoreCase(filter.getType()))
+     {
+       return ResponseEntity.ok(incomeService.getIncomesPage(filter.getStartDate(), filter.getEndDate(), keyword, filter.getCursor(), filter.getLimit(), ascending));
+     }
+     else if(paged && "expense".equalsIgnoreCase(filter.getType()))
+     {
+       return ResponseEntity.ok(expenseService.getExpensesPage(filter.getStartDate(), filter.getEndDate(), keyword, filter.getCursor(), filter.getLimit(), ascending));
+     }
+     else if("income".equalsIgnoreCase(filter.getType()))
      {
        List<IncomeDTO> incomes=incomeService.filterIncome(starDate, endDate, keyword, sort);
        return ResponseEntity.ok(incomes);
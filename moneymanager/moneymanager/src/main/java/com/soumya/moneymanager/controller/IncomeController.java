@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.soumya.moneymanager.dto.CursorPageDTO;
 import com.soumya.moneymanager.dto.IncomeDTO;
 import com.soumya.moneymanager.service.IncomeService;
 
@@ -42,6 +43,20 @@ public class IncomeController {
     return ResponseEntity.status(HttpStatus.OK).body(incomes);
   }
 
+  // Cursor-paginated listing: pass the returned nextCursor to fetch the following page
+  @GetMapping("/page")
+  public ResponseEntity<CursorPageDTO<IncomeDTO>> getIncomesPage(
+      @RequestParam(required = false) LocalDate startDate,
+      @RequestParam(required = false) LocalDate endDate,
+      @RequestParam(required = false) String keyword,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false, defaultValue = "desc") String sortOrder
+  ){
+    CursorPageDTO<IncomeDTO> page=incomeService.getIncomesPage(startDate, endDate, keyword, cursor, limit, "asc".equalsIgnoreCase(sortOrder));
+    return ResponseEntity.ok(page);
+  }
+
   @DeleteMapping("/{id}")
   public ResponseEntity<Void> deleteIncome(@PathVariable Long id) {
 
@@ -9,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.soumya.moneymanager.dto.AIPredictionResponse;
@@ -24,11 +25,13 @@ public class InsightsController {
   private final AIPredictionService aiPredictionService;
 
   @GetMapping("/predict-budget/{userId}")
-  public ResponseEntity<Map<String, Object>> predictBudget(@PathVariable("userId") Long userId) {
-    AIPredictionResponse r = aiPredictionService.getPredictionForUser(userId);
+  public ResponseEntity<Map<String, Object>> predictBudget(@PathVariable("userId") Long userId,
+      @RequestParam(required = false) Integer months) {
+    AIPredictionResponse r = aiPredictionService.getPredictionForUser(userId, months);
 
     Map<String, Object> resp = new HashMap<>();
     resp.put("userId", r.getUserId());
+    resp.put("horizonMonths", r.getHorizonMonths());
     resp.put("predictedExpense", r.getPredictedExpenseNextMonth() != null ? r.getPredictedExpenseNextMonth().longValue() : 0L);
     resp.put("suggestedSavingGoal", r.getSuggestedSavingGoal() != null ? r.getSuggestedSavingGoal().longValue() : 0L);
     resp.put("trend", r.getTrend() != null ? r.getTrend().toUpperCase() : "STABLE");
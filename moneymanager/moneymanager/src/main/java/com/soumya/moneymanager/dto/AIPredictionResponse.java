@@ -14,6 +14,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class AIPredictionResponse {
   private Long userId;
+  private Integer horizonMonths; // months of history used: 12, 24 or 36
   private BigDecimal predictedExpenseNextMonth;
   private BigDecimal suggestedSavingGoal;
   private String trend; // UP | DOWN | STABLE
@@ -0,0 +1,22 @@
+package com.soumya.moneymanager.dto;
+
+import java.math.BigDecimal;
+
+import com.soumya.moneymanager.entity.CategoryBudgetEntity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One budget row joined with its category name and the amount spent in that month
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BudgetSpendDTO {
+
+  private CategoryBudgetEntity budget;
+  private String categoryName;
+  private BigDecimal spent; // null when nothing was spent in the category that month
+}
@@ -0,0 +1,17 @@
+package com.soumya.moneymanager.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryTotalDTO {
+
+  private Long categoryId;
+  private String categoryName;
+  private BigDecimal total;
+}
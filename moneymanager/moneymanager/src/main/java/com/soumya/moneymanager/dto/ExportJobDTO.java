@@ -0,0 +1,25 @@
+package com.soumya.moneymanager.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExportJobDTO {
+
+  private String id;
+  private String format;
+  private String status; // PENDING, RUNNING, DONE, FAILED
+  private boolean cached; // served from an artifact built earlier for the same data version
+  private Long sizeBytes;
+  private String fileName;
+  private String error;
+  private LocalDateTime createdAt;
+  private LocalDateTime completedAt;
+}
@@ -0,0 +1,28 @@
+package com.soumya.moneymanager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Flat income/expense row used by the exports. Selected directly by the export queries,
+ * so rows are never attached to the persistence context.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExportRowDTO {
+
+  private Long id;
+  private String name;
+  private String categoryName;
+  private String icon;
+  private BigDecimal amount;
+  private LocalDate date;
+  private LocalDateTime createdAt;
+  private LocalDateTime updatedAt;
+}
@@ -15,6 +15,9 @@ public class FilterDTO {
   private String keyword;
   private String sortField;
   private String sortOrder;
+  // Optional keyset pagination (sorted by date); when either is set the response is a CursorPageDTO
+  private String cursor;
+  private Integer limit;
 
   
   
@@ -0,0 +1,24 @@
+package com.soumya.moneymanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change pushed to connected clients over /events/stream.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LiveEventDTO {
+
+  @JsonIgnore
+  private Long profileId; // recipient; null sends to every connected user
+
+  private String type; // e.g. expense.created, income.deleted, post.liked
+  private Object data;
+}
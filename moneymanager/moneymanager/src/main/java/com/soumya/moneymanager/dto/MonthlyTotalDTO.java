@@ -0,0 +1,23 @@
+package com.soumya.moneymanager.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MonthlyTotalDTO {
+
+  private YearMonth month;
+  private BigDecimal total;
+
+  // Used by rollup queries, where the month is stored as YYYY-MM
+  public MonthlyTotalDTO(String month, BigDecimal total) {
+    this.month = YearMonth.parse(month);
+    this.total = total != null ? total : BigDecimal.ZERO;
+  }
+}
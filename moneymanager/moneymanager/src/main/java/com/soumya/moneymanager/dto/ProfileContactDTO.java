@@ -0,0 +1,16 @@
+package com.soumya.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Just what the notification jobs need to address a user
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProfileContactDTO {
+
+  private Long id;
+  private String email;
+  private String fullName;
+}
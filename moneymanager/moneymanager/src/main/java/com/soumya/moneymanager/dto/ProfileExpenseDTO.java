@@ -0,0 +1,19 @@
+package com.soumya.moneymanager.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One expense line of a daily summary, tagged with its owner so a chunk of profiles is read in one query
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProfileExpenseDTO {
+
+  private Long profileId;
+  private String name;
+  private BigDecimal amount;
+  private String categoryName;
+}
@@ -0,0 +1,51 @@
+package com.soumya.moneymanager.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Precomputed budget prediction of one profile and horizon, stored as the JSON response.
+ * A row is valid while the profile's data version and the calendar month it was computed
+ * for are unchanged; otherwise it is recomputed on the next read or by the nightly batch.
+ */
+@Entity
+@Table(name = "tbl_budget_predictions", uniqueConstraints = @UniqueConstraint(
+    name = "uk_budget_prediction_profile_horizon", columnNames = {"profile_id", "horizon_months"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BudgetPredictionEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "profile_id", nullable = false)
+  private Long profileId;
+
+  @Column(name = "horizon_months", nullable = false)
+  private Integer horizonMonths;
+
+  @Column(nullable = false)
+  private Long dataVersion;
+
+  @Column(nullable = false, length = 7)
+  private String forMonth; // YYYY-MM
+
+  @Column(nullable = false, columnDefinition = "json")
+  private String payload;
+
+  private LocalDateTime computedAt;
+}
@@ -13,6 +13,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -28,7 +29,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-@Table(name="tbl_expenses")
+@Table(name="tbl_expenses", indexes = @Index(name = "idx_expenses_profile_date_id", columnList = "profile_id, date, id"))
 public class ExpenseEntity {
 
   @Id
@@ -47,7 +48,7 @@ public class ExpenseEntity {
   @UpdateTimestamp
   private LocalDateTime updatedAt;
 
-  @ManyToOne
+  @ManyToOne(fetch=FetchType.LAZY)
   @JoinColumn(name="category_id", nullable=false)
   private CategoryEntity category;
 
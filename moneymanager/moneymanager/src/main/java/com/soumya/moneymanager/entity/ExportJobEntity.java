@@ -0,0 +1,61 @@
+package com.soumya.moneymanager.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * State of an asynchronous export, shared by all instances so a job can be polled and
+ * downloaded through any of them. The artifact itself lives in the export spool under
+ * cacheKey; nodeId is the instance building it.
+ */
+@Entity
+@Table(name = "tbl_export_jobs", indexes = {
+    @Index(name = "idx_export_jobs_cache_key", columnList = "cache_key, status"),
+    @Index(name = "idx_export_jobs_completed", columnList = "completed_at")})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExportJobEntity {
+
+  @Id
+  @Column(length = 36)
+  private String id;
+
+  @Column(nullable = false)
+  private Long profileId;
+
+  @Column(nullable = false, length = 20)
+  private String format;
+
+  @Column(nullable = false, length = 100)
+  private String cacheKey; // profile, format and data version
+
+  @Column(nullable = false, length = 10)
+  private String status; // PENDING, RUNNING, DONE or FAILED
+
+  private boolean cached;
+
+  @Column(length = 1000)
+  private String error;
+
+  @Column(length = 100)
+  private String nodeId;
+
+  @CreationTimestamp
+  @Column(updatable = false)
+  private LocalDateTime createdAt;
+
+  private LocalDateTime completedAt;
+}
@@ -0,0 +1,61 @@
+package com.soumya.moneymanager.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One run of a chunked scheduled job. The unique (job_name, run_date) key doubles as the
+ * cluster-wide lock: only the node that inserts the row splits the run into shards
+ * (tbl_job_shards), whose progress is tracked per shard. lastProfileId is the highest
+ * profile id covered by the split, processed the total once the run completes.
+ */
+@Entity
+@Table(name = "tbl_job_runs", uniqueConstraints = @UniqueConstraint(
+    name = "uk_job_run_name_date", columnNames = {"job_name", "run_date"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class JobRunEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, length = 64)
+  private String jobName;
+
+  @Column(nullable = false)
+  private LocalDate runDate;
+
+  @Column(nullable = false, length = 10)
+  private String status; // RUNNING or COMPLETED
+
+  @Column(nullable = false)
+  private Long lastProfileId;
+
+  @Column(nullable = false)
+  private Integer processed;
+
+  @CreationTimestamp
+  @Column(updatable = false)
+  private LocalDateTime startedAt;
+
+  @UpdateTimestamp
+  private LocalDateTime updatedAt;
+}
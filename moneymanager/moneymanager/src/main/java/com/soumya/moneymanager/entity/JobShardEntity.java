@@ -0,0 +1,69 @@
+package com.soumya.moneymanager.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A profile-id range (rangeStart, rangeEnd] of one job run. A node owns a shard while its
+ * lease is valid and its heartbeat is recent; otherwise any other node may take it over
+ * and continue after lastProfileId. Every claim stores a fresh claimToken; progress and
+ * completion must present it, so a holder whose shard was re-claimed (even by another thread
+ * of the same node) can no longer write.
+ */
+@Entity
+@Table(name = "tbl_job_shards", uniqueConstraints = @UniqueConstraint(
+    name = "uk_job_shard_name_date_index", columnNames = {"job_name", "run_date", "shard_index"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class JobShardEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, length = 64)
+  private String jobName;
+
+  @Column(nullable = false)
+  private LocalDate runDate;
+
+  @Column(nullable = false)
+  private Integer shardIndex;
+
+  @Column(nullable = false)
+  private Long rangeStart; // exclusive
+
+  @Column(nullable = false)
+  private Long rangeEnd; // inclusive
+
+  @Column(nullable = false)
+  private Long lastProfileId;
+
+  @Column(nullable = false)
+  private Integer processed;
+
+  @Column(nullable = false, length = 10)
+  private String status; // PENDING, RUNNING or COMPLETED
+
+  @Column(length = 100)
+  private String ownerNode;
+
+  private LocalDateTime leaseUntil;
+
+  @Column(length = 36)
+  private String claimToken;
+}
@@ -0,0 +1,70 @@
+package com.soumya.moneymanager.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outbound mail waiting to be sent (or kept for a while after). Written by EmailService and
+ * drained by MailQueueService.
+ */
+@Entity
+@Table(name = "tbl_mail_queue", indexes = @Index(name = "idx_mail_queue_status_next", columnList = "status, next_attempt_at"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class MailMessageEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private String recipient;
+
+  private String subject;
+
+  @Lob
+  @Column(columnDefinition = "LONGTEXT")
+  private String body;
+
+  private String attachmentName;
+
+  @Lob
+  @Column(columnDefinition = "LONGBLOB")
+  private byte[] attachment;
+
+  @Column(nullable = false, length = 10)
+  private String status; // PENDING, SENDING, SENT or DEAD
+
+  @Column(nullable = false)
+  private Integer attempts;
+
+  @Column(nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  private LocalDateTime claimedAt;
+
+  private LocalDateTime sentAt;
+
+  @Column(length = 1000)
+  private String lastError;
+
+  @CreationTimestamp
+  @Column(updatable = false)
+  private LocalDateTime createdAt;
+}
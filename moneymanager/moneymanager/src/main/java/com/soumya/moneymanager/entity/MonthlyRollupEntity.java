@@ -0,0 +1,54 @@
+package com.soumya.moneymanager.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "tbl_monthly_rollups", uniqueConstraints = @UniqueConstraint(
+    name = "uk_rollup_profile_category_month_type",
+    columnNames = {"profile_id", "category_id", "month", "type"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class MonthlyRollupEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long profileId;
+
+  @Column(nullable = false)
+  private Long categoryId;
+
+  @Column(nullable = false, length = 7)
+  private String month; // Format: YYYY-MM
+
+  @Column(nullable = false, length = 10)
+  private String type; // INCOME or EXPENSE
+
+  @Column(nullable = false)
+  private BigDecimal totalAmount;
+
+  @Column(nullable = false)
+  private Long txnCount;
+
+  @UpdateTimestamp
+  private LocalDateTime updatedAt;
+}
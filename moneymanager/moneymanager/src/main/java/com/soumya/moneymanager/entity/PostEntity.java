@@ -35,6 +35,9 @@ public class PostEntity {
   private String content;
   private int likes;
 
+  // Maintained by CommunityService on comment writes, backfilled once from tbl_comments
+  private int commentCount;
+
   @CreationTimestamp
   private LocalDateTime createdAt;
 }
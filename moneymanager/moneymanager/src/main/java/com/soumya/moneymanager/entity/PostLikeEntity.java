@@ -0,0 +1,47 @@
+package com.soumya.moneymanager.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One user's like of a post. The unique (post_id, profile_id) key makes a like idempotent;
+ * tbl_posts.likes is the denormalised count, adjusted only when a row is actually added or removed.
+ */
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "tbl_post_likes", uniqueConstraints = @UniqueConstraint(
+    name = "uk_post_likes_post_profile", columnNames = {"post_id", "profile_id"}))
+public class PostLikeEntity {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "post_id", nullable = false)
+  private PostEntity post;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "profile_id", nullable = false)
+  private ProfileEntity user;
+
+  @CreationTimestamp
+  private LocalDateTime createdAt;
+}
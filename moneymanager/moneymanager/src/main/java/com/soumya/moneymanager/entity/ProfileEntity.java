@@ -44,6 +44,11 @@ public class ProfileEntity {
   
   private String resetPasswordToken;
 
+  // Bumped by DataVersionService whenever the profile's transactions or categories change.
+  // Only written through that bulk update, so saving a stale entity cannot roll it back.
+  @Column(insertable=false, updatable=false)
+  private Long dataVersion;
+
 
   public void prePersist()
   {
@@ -0,0 +1,34 @@
+package com.soumya.moneymanager.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One running application instance. Each instance refreshes its heartbeat periodically;
+ * instances with a recent heartbeat are the live nodes the nightly jobs are split across.
+ */
+@Entity
+@Table(name = "tbl_scheduler_nodes")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SchedulerNodeEntity {
+
+  @Id
+  @Column(length = 100)
+  private String nodeId;
+
+  @Column(nullable = false)
+  private LocalDateTime lastHeartbeat;
+
+  private LocalDateTime startedAt;
+}
@@ -0,0 +1,32 @@
+package com.soumya.moneymanager.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.soumya.moneymanager.entity.BudgetPredictionEntity;
+
+public interface BudgetPredictionRepo extends JpaRepository<BudgetPredictionEntity, Long> {
+
+  // The stored prediction, only if it was computed from the profile's current data version this month
+  @Query("select b.payload from BudgetPredictionEntity b, ProfileEntity p where p.id = b.profileId "
+      + "and b.profileId = :profileId and b.horizonMonths = :horizon and b.forMonth = :forMonth "
+      + "and b.dataVersion = coalesce(p.dataVersion, 0)")
+  Optional<String> findCurrentPayload(@Param("profileId") Long profileId, @Param("horizon") int horizon, @Param("forMonth") String forMonth);
+
+  // How many horizons are stored for the profile's current data version this month
+  @Query("select count(b) from BudgetPredictionEntity b, ProfileEntity p where p.id = b.profileId "
+      + "and b.profileId = :profileId and b.forMonth = :forMonth and b.dataVersion = coalesce(p.dataVersion, 0)")
+  long countCurrent(@Param("profileId") Long profileId, @Param("forMonth") String forMonth);
+
+  @Modifying
+  @Query(value = "insert into tbl_budget_predictions (profile_id, horizon_months, data_version, for_month, payload, computed_at) "
+      + "values (:profileId, :horizon, :dataVersion, :forMonth, :payload, :now) "
+      + "on duplicate key update data_version = :dataVersion, for_month = :forMonth, payload = :payload, computed_at = :now", nativeQuery = true)
+  int upsert(@Param("profileId") Long profileId, @Param("horizon") int horizon, @Param("dataVersion") long dataVersion,
+      @Param("forMonth") String forMonth, @Param("payload") String payload, @Param("now") LocalDateTime now);
+}
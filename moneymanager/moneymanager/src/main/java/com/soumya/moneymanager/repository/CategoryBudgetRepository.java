@@ -5,7 +5,10 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.soumya.moneymanager.dto.BudgetSpendDTO;
 import com.soumya.moneymanager.entity.CategoryBudgetEntity;
 
 public interface CategoryBudgetRepository extends JpaRepository<CategoryBudgetEntity, UUID> {
@@ -15,4 +18,13 @@ public interface CategoryBudgetRepository extends JpaRepository<CategoryBudgetEn
   
   // Find specific budget for user, category and month
   Optional<CategoryBudgetEntity> findByUserIdAndCategoryIdAndMonth(Long userId, Long categoryId, String month);
+
+  // Budgets with category name and spent amount for a range of months, in one query.
+  // Spent comes from the monthly expense rollup of the same (user, category, month).
+  @Query("select new com.soumya.moneymanager.dto.BudgetSpendDTO(b, c.name, r.totalAmount) from CategoryBudgetEntity b "
+      + "join CategoryEntity c on c.id = b.categoryId "
+      + "left join MonthlyRollupEntity r on r.profileId = b.userId and r.categoryId = b.categoryId and r.month = b.month and r.type = 'EXPENSE' "
+      + "where b.userId = :userId and b.month between :fromMonth and :toMonth "
+      + "order by b.month, c.name")
+  List<BudgetSpendDTO> findBudgetsWithSpent(@Param("userId") Long userId, @Param("fromMonth") String fromMonth, @Param("toMonth") String toMonth);
 }
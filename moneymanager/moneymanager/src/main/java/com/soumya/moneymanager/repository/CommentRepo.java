@@ -1,12 +1,34 @@
 package com.soumya.moneymanager.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.soumya.moneymanager.dto.CommentDTO;
 import com.soumya.moneymanager.entity.CommentEntity;
 import com.soumya.moneymanager.entity.PostEntity;
 
 public interface CommentRepo extends JpaRepository<CommentEntity, Long> {
   List<CommentEntity> findByPost(PostEntity post);
+
+  @Modifying
+  @Query("delete from CommentEntity c where c.post.id = :postId")
+  int deleteByPostId(@Param("postId") Long postId);
+
+  // Latest :perPost comments of each post in one query, oldest first within a post
+  @Query("select new com.soumya.moneymanager.dto.CommentDTO(r.id, r.postId, r.userId, r.userName, r.content, r.createdAt) "
+      + "from (select c.id as id, c.post.id as postId, u.id as userId, u.fullName as userName, c.content as content, "
+      + "c.createdAt as createdAt, row_number() over (partition by c.post.id order by c.id desc) as rn "
+      + "from CommentEntity c join c.user u where c.post.id in :postIds) r "
+      + "where r.rn <= :perPost order by r.postId, r.id")
+  List<CommentDTO> findPreviewComments(@Param("postIds") Collection<Long> postIds, @Param("perPost") int perPost);
+
+  // One page of a post's thread in posting order, with authors loaded in the same query
+  @Query("select c from CommentEntity c join fetch c.user where c.post.id = :postId and c.id > :afterId order by c.id")
+  List<CommentEntity> findThreadPage(@Param("postId") Long postId, @Param("afterId") Long afterId, Pageable pageable);
 }
@@ -3,14 +3,22 @@ package com.soumya.moneymanager.repository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+
+import com.soumya.moneymanager.dto.CategoryTotalDTO;
+import com.soumya.moneymanager.dto.ExportRowDTO;
+import com.soumya.moneymanager.dto.ProfileExpenseDTO;
 import com.soumya.moneymanager.entity.ExpenseEntity;
-import com.soumya.moneymanager.entity.IncomeEntity;
 
 public interface ExpenseRepo extends  JpaRepository<ExpenseEntity, Long>{
 
@@ -24,19 +32,60 @@ public interface ExpenseRepo extends  JpaRepository<ExpenseEntity, Long>{
   @Query("select sum(e.amount) from ExpenseEntity e where e.profile.id = :profileId")
   BigDecimal findTotalExpenseByProfileId(@Param("profileId") Long profileId);
 
+  @Query("select sum(e.amount) from ExpenseEntity e where e.profile.id = :profileId and e.date between :startDate and :endDate")
+  BigDecimal findTotalExpenseByProfileIdAndDateBetween(@Param("profileId") Long profileId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+  // select top 10 from expense where profile_id = ? 1 [and date between ? 2 and ? 3] order by date desc, created_at desc
+  List<ExpenseEntity> findTop10ByProfileIdOrderByDateDescCreatedAtDesc(Long profileId);
+  List<ExpenseEntity> findTop10ByProfileIdAndDateBetweenOrderByDateDescCreatedAtDesc(Long profileId, LocalDate startDate, LocalDate endDate);
+
   // Sum expenses by category, profile, and date range
   @Query("select sum(e.amount) from ExpenseEntity e where e.profile.id = :profileId and e.category.id = :categoryId and e.date between :startDate and :endDate")
   BigDecimal findTotalExpenseByProfileIdAndCategoryIdAndDateBetween(@Param("profileId") Long profileId, @Param("categoryId") Long categoryId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
+  // Sum expenses per category for one profile and date range, in a single grouped query
+  @Query("select new com.soumya.moneymanager.dto.CategoryTotalDTO(c.id, c.name, sum(e.amount)) from ExpenseEntity e join e.category c "
+      + "where e.profile.id = :profileId and e.date between :startDate and :endDate group by c.id, c.name")
+  List<CategoryTotalDTO> findCategoryTotalsByProfileIdAndDateBetween(@Param("profileId") Long profileId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
  
+  // Keyset pagination over (date, id), served by idx on (profile_id, date, id); fetch one row more than the page size to know if another page follows
+  @Query("select e from ExpenseEntity e where e.profile.id = :profileId and e.date between :startDate and :endDate "
+      + "and lower(e.name) like lower(concat('%', :keyword, '%')) "
+      + "and (e.date < :cursorDate or (e.date = :cursorDate and e.id < :cursorId)) order by e.date desc, e.id desc")
+  List<ExpenseEntity> findPageBefore(@Param("profileId") Long profileId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+      @Param("keyword") String keyword, @Param("cursorDate") LocalDate cursorDate, @Param("cursorId") Long cursorId, Pageable pageable);
+
+  @Query("select e from ExpenseEntity e where e.profile.id = :profileId and e.date between :startDate and :endDate "
+      + "and lower(e.name) like lower(concat('%', :keyword, '%')) "
+      + "and (e.date > :cursorDate or (e.date = :cursorDate and e.id > :cursorId)) order by e.date asc, e.id asc")
+  List<ExpenseEntity> findPageAfter(@Param("profileId") Long profileId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+      @Param("keyword") String keyword, @Param("cursorDate") LocalDate cursorDate, @Param("cursorId") Long cursorId, Pageable pageable);
+
  // select * from expense where profile_id = ? 1 and date between ? 2 and ? 3
   List<ExpenseEntity> findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(Long profileId, LocalDate startDate, LocalDate endDate, String keyword,Sort sort);
 
 // select * from expense where profile_id = ? 1 and date between ? 2 and ? 3
   List<ExpenseEntity> findByProfileIdAndDateBetween(Long profileId, LocalDate startDate, LocalDate endDate);
+// Expenses of several profiles on one day, in one query (daily summary job)
+  @Query("select new com.soumya.moneymanager.dto.ProfileExpenseDTO(e.profile.id, e.name, e.amount, c.name) from ExpenseEntity e left join e.category c "
+      + "where e.profile.id in :profileIds and e.date = :date order by e.profile.id, e.id")
+  List<ProfileExpenseDTO> findDailyExpensesForProfiles(@Param("profileIds") List<Long> profileIds, @Param("date") LocalDate date);
+
 // select * from expense where profile_id = ? 1 and date = ? 2
   List<ExpenseEntity> findByProfileIdAndDate(Long profileId,LocalDate date);
 
 List<ExpenseEntity> findByProfileId(Long id);
   
+
+  // Export rows in (date, id) order as a forward-only stream. A fetch size of Integer.MIN_VALUE makes
+  // MySQL Connector/J stream the result set row by row instead of buffering it. Requires an open transaction.
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select new com.soumya.moneymanager.dto.ExportRowDTO(e.id, e.name, c.name, e.icon, e.amount, e.date, e.createdAt, e.updatedAt) "
+      + "from ExpenseEntity e left join e.category c where e.profile.id = :profileId order by e.date, e.id")
+  Stream<ExportRowDTO> streamExportRowsByProfileId(@Param("profileId") Long profileId);
+
 }
@@ -0,0 +1,22 @@
+package com.soumya.moneymanager.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.soumya.moneymanager.entity.ExportJobEntity;
+
+public interface ExportJobRepo extends JpaRepository<ExportJobEntity, String> {
+
+  // A job already building this artifact, on any instance
+  Optional<ExportJobEntity> findFirstByCacheKeyAndStatusIn(String cacheKey, Collection<String> statuses);
+
+  @Modifying
+  @Query("delete from ExportJobEntity j where j.completedAt < :before")
+  int deleteCompletedBefore(@Param("before") LocalDateTime before);
+}
@@ -3,12 +3,19 @@ package com.soumya.moneymanager.repository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+
+import com.soumya.moneymanager.dto.ExportRowDTO;
 import com.soumya.moneymanager.entity.IncomeEntity;
 
 public interface  IncomeRepo extends JpaRepository<IncomeEntity, Long>{
@@ -24,7 +31,27 @@ public interface  IncomeRepo extends JpaRepository<IncomeEntity, Long>{
   @Query("select sum(i.amount) from IncomeEntity i where i.profile.id = :profileId")
   BigDecimal findTotalIncomeByProfileId(@Param("profileId") Long profileId);
 
+  @Query("select sum(i.amount) from IncomeEntity i where i.profile.id = :profileId and i.date between :startDate and :endDate")
+  BigDecimal findTotalIncomeByProfileIdAndDateBetween(@Param("profileId") Long profileId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+  // select top 10 from income where profile_id = ? 1 [and date between ? 2 and ? 3] order by date desc, created_at desc
+  List<IncomeEntity> findTop10ByProfileIdOrderByDateDescCreatedAtDesc(Long profileId);
+  List<IncomeEntity> findTop10ByProfileIdAndDateBetweenOrderByDateDescCreatedAtDesc(Long profileId, LocalDate startDate, LocalDate endDate);
+
  
+  // Keyset pagination over (date, id), served by idx on (profile_id, date, id); fetch one row more than the page size to know if another page follows
+  @Query("select i from IncomeEntity i where i.profile.id = :profileId and i.date between :startDate and :endDate "
+      + "and lower(i.name) like lower(concat('%', :keyword, '%')) "
+      + "and (i.date < :cursorDate or (i.date = :cursorDate and i.id < :cursorId)) order by i.date desc, i.id desc")
+  List<IncomeEntity> findPageBefore(@Param("profileId") Long profileId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+      @Param("keyword") String keyword, @Param("cursorDate") LocalDate cursorDate, @Param("cursorId") Long cursorId, Pageable pageable);
+
+  @Query("select i from IncomeEntity i where i.profile.id = :profileId and i.date between :startDate and :endDate "
+      + "and lower(i.name) like lower(concat('%', :keyword, '%')) "
+      + "and (i.date > :cursorDate or (i.date = :cursorDate and i.id > :cursorId)) order by i.date asc, i.id asc")
+  List<IncomeEntity> findPageAfter(@Param("profileId") Long profileId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+      @Param("keyword") String keyword, @Param("cursorDate") LocalDate cursorDate, @Param("cursorId") Long cursorId, Pageable pageable);
+
  // select * from income where profile_id = ? 1 and date between ? 2 and ? 3
   List<IncomeEntity> findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(Long profileId, LocalDate startDate, LocalDate endDate, String keyword,Sort sort);
 
@@ -34,4 +61,15 @@ public interface  IncomeRepo extends JpaRepository<IncomeEntity, Long>{
 List<IncomeEntity> findByProfileId(Long id);
   
   
+
+  // Export rows in (date, id) order as a forward-only stream. A fetch size of Integer.MIN_VALUE makes
+  // MySQL Connector/J stream the result set row by row instead of buffering it. Requires an open transaction.
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select new com.soumya.moneymanager.dto.ExportRowDTO(i.id, i.name, c.name, i.icon, i.amount, i.date, i.createdAt, i.updatedAt) "
+      + "from IncomeEntity i left join i.category c where i.profile.id = :profileId order by i.date, i.id")
+  Stream<ExportRowDTO> streamExportRowsByProfileId(@Param("profileId") Long profileId);
+
 }
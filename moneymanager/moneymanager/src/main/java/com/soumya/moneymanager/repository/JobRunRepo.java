@@ -0,0 +1,16 @@
+package com.soumya.moneymanager.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.soumya.moneymanager.entity.JobRunEntity;
+
+public interface JobRunRepo extends JpaRepository<JobRunEntity, Long> {
+
+  Optional<JobRunEntity> findByJobNameAndRunDate(String jobName, LocalDate runDate);
+
+  List<JobRunEntity> findByStatusAndRunDateGreaterThanEqual(String status, LocalDate runDate);
+}
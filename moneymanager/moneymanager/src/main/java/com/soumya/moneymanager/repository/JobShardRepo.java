@@ -0,0 +1,47 @@
+package com.soumya.moneymanager.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.soumya.moneymanager.entity.JobShardEntity;
+
+public interface JobShardRepo extends JpaRepository<JobShardEntity, Long> {
+
+  List<JobShardEntity> findByJobNameAndRunDateAndStatusNotOrderByShardIndex(String jobName, LocalDate runDate, String status);
+
+  long countByJobNameAndRunDateAndStatusNot(String jobName, LocalDate runDate, String status);
+
+  @Query("select coalesce(sum(s.processed), 0) from JobShardEntity s where s.jobName = :jobName and s.runDate = :runDate")
+  long sumProcessed(@Param("jobName") String jobName, @Param("runDate") LocalDate runDate);
+
+  // Take a shard that is unowned, whose lease ran out, or whose owner stopped sending heartbeats.
+  // The conditional update makes the claim atomic: exactly one caller gets 1 back, and its token fences out earlier holders.
+  @Modifying
+  @Query("update JobShardEntity s set s.ownerNode = :node, s.claimToken = :token, s.leaseUntil = :leaseUntil, s.status = 'RUNNING' "
+      + "where s.id = :id and s.status <> 'COMPLETED' and (s.ownerNode is null or s.leaseUntil < :now "
+      + "or not exists (select n.nodeId from SchedulerNodeEntity n where n.nodeId = s.ownerNode and n.lastHeartbeat > :liveAfter))")
+  int claim(@Param("id") Long id, @Param("node") String node, @Param("token") String token, @Param("now") LocalDateTime now,
+      @Param("liveAfter") LocalDateTime liveAfter, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+  // Progress and lease renewal; 0 means the shard was claimed again since and the caller must stop
+  @Modifying
+  @Query("update JobShardEntity s set s.lastProfileId = :lastProfileId, s.processed = s.processed + :count, s.leaseUntil = :leaseUntil "
+      + "where s.id = :id and s.claimToken = :token")
+  int recordProgress(@Param("id") Long id, @Param("token") String token, @Param("lastProfileId") Long lastProfileId,
+      @Param("count") int count, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+  @Modifying
+  @Query("update JobShardEntity s set s.status = 'COMPLETED', s.leaseUntil = null where s.id = :id and s.claimToken = :token")
+  int complete(@Param("id") Long id, @Param("token") String token);
+
+  @Modifying
+  @Query("update JobShardEntity s set s.ownerNode = null, s.claimToken = null, s.leaseUntil = null, s.status = 'PENDING' "
+      + "where s.ownerNode = :node and s.status <> 'COMPLETED'")
+  int releaseByNode(@Param("node") String node);
+}
@@ -0,0 +1,41 @@
+package com.soumya.moneymanager.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.soumya.moneymanager.entity.MailMessageEntity;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface MailMessageRepo extends JpaRepository<MailMessageEntity, Long> {
+
+  // Due messages, locked with "for update skip locked" so concurrent drainers never claim the same row
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query("select m from MailMessageEntity m where m.status = 'PENDING' and m.nextAttemptAt <= :now order by m.nextAttemptAt, m.id")
+  List<MailMessageEntity> findDueForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+  // Messages left in SENDING by a worker that died are handed back to the queue
+  @Modifying
+  @Query("update MailMessageEntity m set m.status = 'PENDING', m.claimedAt = null where m.status = 'SENDING' and m.claimedAt < :before")
+  int releaseStaleClaims(@Param("before") LocalDateTime before);
+
+  @Modifying
+  @Query("update MailMessageEntity m set m.status = 'PENDING', m.attempts = 0, m.nextAttemptAt = :now where m.status = 'DEAD'")
+  int requeueDead(@Param("now") LocalDateTime now);
+
+  @Modifying
+  @Query("delete from MailMessageEntity m where m.status = 'SENT' and m.sentAt < :before")
+  int deleteSentBefore(@Param("before") LocalDateTime before);
+
+  long countByStatus(String status);
+}
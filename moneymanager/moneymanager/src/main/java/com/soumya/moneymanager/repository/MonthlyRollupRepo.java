@@ -0,0 +1,50 @@
+package com.soumya.moneymanager.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.soumya.moneymanager.dto.MonthlyTotalDTO;
+import com.soumya.moneymanager.entity.MonthlyRollupEntity;
+
+public interface MonthlyRollupRepo extends JpaRepository<MonthlyRollupEntity, Long> {
+
+  // Adds a signed delta to the (profile, category, month, type) bucket, creating the bucket on first use
+  @Modifying
+  @Query(value = "insert into tbl_monthly_rollups (profile_id, category_id, month, type, total_amount, txn_count, updated_at) "
+      + "values (:profileId, :categoryId, :month, :type, :amount, :count, now()) "
+      + "on duplicate key update total_amount = total_amount + :amount, txn_count = txn_count + :count, updated_at = now()",
+      nativeQuery = true)
+  int applyDelta(@Param("profileId") Long profileId, @Param("categoryId") Long categoryId, @Param("month") String month,
+      @Param("type") String type, @Param("amount") BigDecimal amount, @Param("count") long count);
+
+  // Totals per month across all categories, one row per month
+  @Query("select new com.soumya.moneymanager.dto.MonthlyTotalDTO(r.month, sum(r.totalAmount)) from MonthlyRollupEntity r "
+      + "where r.profileId = :profileId and r.type = :type and r.month between :fromMonth and :toMonth group by r.month")
+  List<MonthlyTotalDTO> findMonthlyTotals(@Param("profileId") Long profileId, @Param("type") String type,
+      @Param("fromMonth") String fromMonth, @Param("toMonth") String toMonth);
+
+  // Rebuild support
+
+  @Modifying
+  @Query("delete from MonthlyRollupEntity r where r.profileId = :profileId")
+  int deleteByProfileId(@Param("profileId") Long profileId);
+
+  @Modifying
+  @Query(value = "insert into tbl_monthly_rollups (profile_id, category_id, month, type, total_amount, txn_count, updated_at) "
+      + "select e.profile_id, e.category_id, date_format(e.date, '%Y-%m'), 'EXPENSE', coalesce(sum(e.amount), 0), count(*), now() "
+      + "from tbl_expenses e where e.profile_id = :profileId and e.date is not null group by e.profile_id, e.category_id, date_format(e.date, '%Y-%m')",
+      nativeQuery = true)
+  int rebuildExpenseRollups(@Param("profileId") Long profileId);
+
+  @Modifying
+  @Query(value = "insert into tbl_monthly_rollups (profile_id, category_id, month, type, total_amount, txn_count, updated_at) "
+      + "select i.profile_id, i.category_id, date_format(i.date, '%Y-%m'), 'INCOME', coalesce(sum(i.amount), 0), count(*), now() "
+      + "from tbl_incomes i where i.profile_id = :profileId and i.date is not null group by i.profile_id, i.category_id, date_format(i.date, '%Y-%m')",
+      nativeQuery = true)
+  int rebuildIncomeRollups(@Param("profileId") Long profileId);
+}
@@ -0,0 +1,24 @@
+package com.soumya.moneymanager.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.soumya.moneymanager.entity.PostLikeEntity;
+
+public interface PostLikeRepo extends JpaRepository<PostLikeEntity, Long> {
+
+  // 1 if the like was added, 0 if the user already liked the post
+  @Modifying
+  @Query(value = "insert ignore into tbl_post_likes (post_id, profile_id, created_at) values (:postId, :profileId, now())", nativeQuery = true)
+  int insertIfAbsent(@Param("postId") Long postId, @Param("profileId") Long profileId);
+
+  @Modifying
+  @Query("delete from PostLikeEntity l where l.post.id = :postId and l.user.id = :profileId")
+  int deleteLike(@Param("postId") Long postId, @Param("profileId") Long profileId);
+
+  @Modifying
+  @Query("delete from PostLikeEntity l where l.post.id = :postId")
+  int deleteByPostId(@Param("postId") Long postId);
+}
@@ -1,8 +1,33 @@
 package com.soumya.moneymanager.repository;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.soumya.moneymanager.entity.PostEntity;
 
 public interface PostRepo extends JpaRepository<PostEntity, Long> {
+
+  // Feed page, newest first, with the author loaded in the same query
+  @Query("select p from PostEntity p join fetch p.user where p.id < :beforeId order by p.id desc")
+  List<PostEntity> findFeedPage(@Param("beforeId") Long beforeId, Pageable pageable);
+
+  @Modifying
+  @Query("update PostEntity p set p.commentCount = p.commentCount + 1 where p.id = :postId")
+  int incrementCommentCount(@Param("postId") Long postId);
+
+  // One-time backfill of counters for posts whose comments were written before the counter existed
+  @Modifying
+  @Query(value = "update tbl_posts p set p.comment_count = (select count(*) from tbl_comments c where c.post_id = p.id) "
+      + "where p.comment_count <> (select count(*) from tbl_comments c where c.post_id = p.id)", nativeQuery = true)
+  int reconcileCommentCounts();
+
+  // Atomic in the database, so concurrent likes only contend on the post's row
+  @Modifying(clearAutomatically = true)
+  @Query("update PostEntity p set p.likes = case when p.likes + :delta < 0 then 0 else p.likes + :delta end where p.id = :postId")
+  int adjustLikes(@Param("postId") Long postId, @Param("delta") int delta);
 }
@@ -1,9 +1,15 @@
 package com.soumya.moneymanager.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.soumya.moneymanager.dto.ProfileContactDTO;
 import com.soumya.moneymanager.entity.ProfileEntity;
 
 
@@ -11,5 +17,27 @@ public interface ProfileRepo extends JpaRepository<ProfileEntity, Long>{
   Optional<ProfileEntity> findByEmail(String email);
   Optional<ProfileEntity> findByActivationToken(String activationToken);
   Optional<ProfileEntity> findByResetPasswordToken(String token);
+
+  @Query("select p.id from ProfileEntity p order by p.id")
+  List<Long> findAllIds();
+
+  // Next chunk of profiles in id order within (afterId, maxId], for the notification jobs
+  @Query("select new com.soumya.moneymanager.dto.ProfileContactDTO(p.id, p.email, p.fullName) from ProfileEntity p "
+      + "where p.id > :afterId and p.id <= :maxId order by p.id")
+  List<ProfileContactDTO> findContactsBetween(@Param("afterId") Long afterId, @Param("maxId") Long maxId, Pageable pageable);
+
+  // Next chunk of profile ids within (afterId, maxId], for batch jobs
+  @Query("select p.id from ProfileEntity p where p.id > :afterId and p.id <= :maxId order by p.id")
+  List<Long> findIdsBetween(@Param("afterId") Long afterId, @Param("maxId") Long maxId, Pageable pageable);
+
+  @Query("select coalesce(max(p.id), 0) from ProfileEntity p")
+  Long findMaxId();
+
+  @Modifying
+  @Query("update ProfileEntity p set p.dataVersion = coalesce(p.dataVersion, 0) + 1 where p.id = :profileId")
+  int incrementDataVersion(@Param("profileId") Long profileId);
+
+  @Query("select coalesce(p.dataVersion, 0) from ProfileEntity p where p.id = :profileId")
+  Long findDataVersion(@Param("profileId") Long profileId);
   
 }
@@ -0,0 +1,26 @@
+package com.soumya.moneymanager.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.soumya.moneymanager.entity.SchedulerNodeEntity;
+
+public interface SchedulerNodeRepo extends JpaRepository<SchedulerNodeEntity, String> {
+
+  @Modifying
+  @Query(value = "insert into tbl_scheduler_nodes (node_id, last_heartbeat, started_at) values (:nodeId, :now, :now) "
+      + "on duplicate key update last_heartbeat = :now", nativeQuery = true)
+  int heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+  long countByLastHeartbeatAfter(LocalDateTime liveAfter);
+
+  boolean existsByNodeIdAndLastHeartbeatAfter(String nodeId, LocalDateTime liveAfter);
+
+  @Modifying
+  @Query("delete from SchedulerNodeEntity n where n.lastHeartbeat < :before")
+  int deleteByLastHeartbeatBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,43 @@
+package com.soumya.moneymanager.security;
+
+import java.util.Map;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Sets the ETag computed by DataVersionEtagInterceptor once the handler has produced its
+ * body. A body flagged "partial" (the dashboard after a section missed its deadline) is
+ * sent without one and with no-store, so the browser neither keeps nor revalidates it.
+ */
+@ControllerAdvice
+public class DataVersionEtagAdvice implements ResponseBodyAdvice<Object> {
+
+  @Override
+  public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+      Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request, ServerHttpResponse response) {
+    if (!(request instanceof ServletServerHttpRequest servletRequest)) return body;
+    Object etag = servletRequest.getServletRequest().getAttribute(DataVersionEtagInterceptor.ETAG_ATTRIBUTE);
+    if (etag == null) return body;
+
+    if (body instanceof Map<?, ?> map && Boolean.TRUE.equals(map.get("partial"))) {
+      response.getHeaders().setCacheControl("no-store");
+      return body;
+    }
+    // Always revalidate, never share: the body is per user
+    response.getHeaders().setCacheControl("private, no-cache");
+    response.getHeaders().setETag((String) etag);
+    return body;
+  }
+}
@@ -0,0 +1,66 @@
+package com.soumya.moneymanager.security;
+
+import java.time.LocalDate;
+import java.util.Collections;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.soumya.moneymanager.service.DataVersionService;
+import com.soumya.moneymanager.service.ProfileService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Conditional GETs for read endpoints that only depend on the current profile's data. The
+ * ETag is built from the profile's data version, today's date (month-relative figures roll
+ * over) and the request URI with its query, so it is answered with 304 Not Modified before
+ * the handler runs whenever nothing changed. Otherwise the ETag is only stashed on the
+ * request; DataVersionEtagAdvice sets it once the body is known to be complete.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataVersionEtagInterceptor implements HandlerInterceptor {
+
+  static final String ETAG_ATTRIBUTE = DataVersionEtagInterceptor.class.getName() + ".etag";
+
+  private final ProfileService profileService;
+  private final DataVersionService dataVersionService;
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (!"GET".equals(request.getMethod())) return true;
+    ProfilePrincipal principal = profileService.getCurrentPrincipal();
+    if (principal == null) return true;
+
+    long version = dataVersionService.getVersion(principal.getId());
+    String query = request.getQueryString();
+    String resource = request.getRequestURI() + (query != null ? "?" + query : "");
+    String etag = "\"" + principal.getId() + "-" + version + "-" + LocalDate.now() + "-"
+        + Integer.toHexString(resource.hashCode()) + "\"";
+
+    // Only complete bodies are ever tagged, so a match means the client holds a complete one
+    if (matches(request, etag)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      response.setHeader(HttpHeaders.ETAG, etag);
+      response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+      return false;
+    }
+    request.setAttribute(ETAG_ATTRIBUTE, etag);
+    return true;
+  }
+
+  private static boolean matches(HttpServletRequest request, String etag) {
+    for (String header : Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH))) {
+      for (String candidate : header.split(",")) {
+        String tag = candidate.trim();
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        if (tag.equals("*") || tag.equals(etag)) return true;
+      }
+    }
+    return false;
+  }
+}
@@ -1,6 +1,7 @@
 package com.soumya.moneymanager.security;
 
 import java.io.IOException;
+import java.util.Objects;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,6 +13,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.soumya.moneymanager.utils.JwtUtil;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,6 +26,11 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
 private final JwtUtil jwtUtil;
 private final UserDetailsService userDetailsService;
+private final TokenRevocationCache tokenRevocationCache;
+
+// EventSource cannot set an Authorization header, so only this path may pass a token as ?token=,
+// and only a short-lived event-stream token (see JwtUtil.generateEventStreamToken)
+private static final String EVENT_STREAM_PATH = "/events/stream";
 
 
 
@@ -33,23 +40,32 @@ private final UserDetailsService userDetailsService;
       throws ServletException, IOException {
 
     final String authorizationHeader = request.getHeader("Authorization");
-
-    String username = null;
-    String jwt = null;
+    String token = null;
+    String requiredScope = null;
+    if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+        token = authorizationHeader.substring(7);
+    } else if (EVENT_STREAM_PATH.equals(request.getServletPath())) {
+        token = request.getParameter("token");
+        requiredScope = JwtUtil.SCOPE_EVENT_STREAM;
+    }
 
     try {
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
-        }
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(jwt, username)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // One parse checks the signature and expiry and yields every claim we need
+            Claims claims = jwtUtil.parseClaims(token);
+            String username = claims.getSubject();
+
+            // Scoped tokens are only good where their scope is required, full tokens never in the URL
+            boolean scopeMatches = Objects.equals(requiredScope, claims.get(JwtUtil.CLAIM_SCOPE, String.class));
+
+            if (username != null && scopeMatches && !tokenRevocationCache.isRevoked(username, claims.getIssuedAt())) {
+                UserDetails userDetails = toUserDetails(claims);
+                if (userDetails.isEnabled()) {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
             }
         }
     } catch (Exception e) {
@@ -62,4 +78,14 @@ private final UserDetailsService userDetailsService;
     filterChain.doFilter(request, response);
   }
 
+  // Tokens issued before the profile claims existed still go through the database lookup
+  private UserDetails toUserDetails(Claims claims) {
+    Number profileId = claims.get(JwtUtil.CLAIM_PROFILE_ID, Number.class);
+    if (profileId == null) {
+      return userDetailsService.loadUserByUsername(claims.getSubject());
+    }
+    Boolean active = claims.get(JwtUtil.CLAIM_ACTIVE, Boolean.class);
+    return new ProfilePrincipal(profileId.longValue(), claims.getSubject(), null, null, !Boolean.FALSE.equals(active));
+  }
+
 }
@@ -0,0 +1,40 @@
+package com.soumya.moneymanager.security;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Authenticated caller. Built once per request by JwtRequestFilter and kept in the
+ * SecurityContext, so services can learn who the caller is without reading tbl_profiles.
+ */
+@Getter
+@AllArgsConstructor
+public class ProfilePrincipal implements UserDetails {
+
+  private final Long id;
+  private final String email;
+  private final String fullName;
+  private final String password; // only set when loaded for a login attempt
+  private final boolean active;
+
+  @Override
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public String getUsername() {
+    return email;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return active;
+  }
+}
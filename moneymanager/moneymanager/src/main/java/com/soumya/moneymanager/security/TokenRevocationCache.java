@@ -0,0 +1,63 @@
+package com.soumya.moneymanager.security;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.soumya.moneymanager.utils.JwtUtil;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * In-memory "revoked before" timestamps per token subject. A token issued at or before the
+ * subject's timestamp is rejected. Disabled by default; when enabled it holds at most
+ * max-entries subjects, and entries older than the longest token lifetime are dropped first
+ * since no token they could reject is still valid.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationCache {
+
+  private final JwtUtil jwtUtil;
+
+  @Value("${money.manager.jwt.revocation.enabled:false}")
+  private boolean enabled;
+
+  @Value("${money.manager.jwt.revocation.max-entries:10000}")
+  private int maxEntries;
+
+  private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+  /**
+   * Invalidate every token issued so far for this subject (e.g. after a password reset).
+   */
+  public void revokeAll(String subject) {
+    if (!enabled || subject == null) return;
+    revokedBefore.put(subject, System.currentTimeMillis());
+    if (revokedBefore.size() > maxEntries) {
+      evict();
+    }
+  }
+
+  public boolean isRevoked(String subject, Date issuedAt) {
+    if (!enabled || subject == null) return false;
+    Long cutoff = revokedBefore.get(subject);
+    if (cutoff == null) return false;
+    // iat has second precision, so a token from the same second as the revocation is rejected too
+    return issuedAt == null || issuedAt.getTime() <= cutoff;
+  }
+
+  private synchronized void evict() {
+    long expiredBefore = System.currentTimeMillis() - jwtUtil.getRefreshTokenExpirationMillis();
+    revokedBefore.values().removeIf(cutoff -> cutoff < expiredBefore);
+    while (revokedBefore.size() > maxEntries) {
+      revokedBefore.entrySet().stream()
+          .min(Comparator.comparing(Map.Entry::getValue))
+          .ifPresent(oldest -> revokedBefore.remove(oldest.getKey(), oldest.getValue()));
+    }
+  }
+}
@@ -3,11 +3,17 @@ package com.soumya.moneymanager.security;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import lombok.RequiredArgsConstructor;
+
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig {
 
+    private final DataVersionEtagInterceptor dataVersionEtagInterceptor;
+
     @Bean
     public WebMvcConfigurer corsConfigurer() {
         return new WebMvcConfigurer() {
@@ -17,8 +23,17 @@ public class WebConfig {
                         .allowedOrigins("http://localhost:5173")
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders("ETag")
                         .allowCredentials(true);
             }
+
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // Read endpoints whose responses depend only on the profile's data version
+                registry.addInterceptor(dataVersionEtagInterceptor)
+                        .addPathPatterns("/dashboard", "/income", "/income/**", "/expenses", "/expenses/**",
+                                "/categories", "/categories/**", "/budget", "/goals", "/insights/predict-budget/**");
+            }
         };
     }
 }
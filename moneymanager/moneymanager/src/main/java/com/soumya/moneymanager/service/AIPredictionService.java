@@ -3,37 +3,124 @@ package com.soumya.moneymanager.service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.soumya.moneymanager.dto.AIPredictionResponse;
-import com.soumya.moneymanager.entity.CategoryEntity;
-import com.soumya.moneymanager.entity.ProfileEntity;
-import com.soumya.moneymanager.repository.CategoryRepo;
+import com.soumya.moneymanager.dto.CategoryTotalDTO;
+import com.soumya.moneymanager.repository.BudgetPredictionRepo;
 import com.soumya.moneymanager.repository.ExpenseRepo;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AIPredictionService {
   private final ExpenseRepo expenseRepo;
-  private final CategoryRepo categoryRepo;
   private final ProfileService profileService;
+  private final MonthlyRollupService monthlyRollupService;
+  private final DataVersionService dataVersionService;
+  private final BudgetPredictionRepo budgetPredictionRepo;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+
+  // Zone of the nightly batch cron; prediction months are read and written in it, so a row the
+  // batch stores at 01:30 on the 1st is for the same month a read sees
+  public static final String PREDICTION_ZONE = "IST";
+  private static final ZoneId PREDICTION_ZONE_ID = ZoneId.of(PREDICTION_ZONE, ZoneId.SHORT_IDS);
+
+  // History window used for the regression; all horizons are served from one read of the longest
+  private static final Set<Integer> SUPPORTED_HORIZONS = Set.of(12, 24, 36);
+  private static final int MAX_HORIZON = 36;
+
+  @Value("${money.manager.prediction.default-months:12}")
+  private int defaultHorizonMonths;
 
   public AIPredictionResponse getPredictionForUser(Long userId) {
-    ProfileEntity current = profileService.getCurrentProfile();
-    if (!current.getId().equals(userId)) {
+    return getPredictionForUser(userId, null);
+  }
+
+  /**
+   * Served from tbl_budget_predictions when the stored row matches the profile's current data
+   * version and month; otherwise every horizon is recomputed and stored in one go.
+   */
+  public AIPredictionResponse getPredictionForUser(Long userId, Integer months) {
+    if (!profileService.getCurrentProfileId().equals(userId)) {
       throw new RuntimeException("Unauthorized to access prediction for this user");
     }
 
-    // Use ALL available history (e.g., last 24 months to be safe/performant, or ideally all)
-    // For this implementation, let's use 12 months which is a good "full history" proxy for trends
-    double[] monthly = lastNMonthsTotals(userId, 12);
+    int horizon = resolveHorizon(months);
+    Optional<String> stored = budgetPredictionRepo.findCurrentPayload(userId, horizon, currentMonth().toString());
+    if (stored.isPresent()) {
+      try {
+        return objectMapper.readValue(stored.get(), AIPredictionResponse.class);
+      } catch (JsonProcessingException e) {
+        log.warn("Unreadable stored prediction for profile {}, recomputing", userId, e);
+      }
+    }
+    return refreshProfile(userId).get(horizon);
+  }
+
+  /**
+   * Recompute the predictions of every supported horizon for the profile and store them. The
+   * longest history is read once and the shorter horizons use its most recent months. Used on
+   * a read miss and by the nightly batch.
+   */
+  public Map<Integer, AIPredictionResponse> refreshProfile(Long userId) {
+    // Read the version before the inputs: a write landing meanwhile leaves the rows stale, never wrong
+    long dataVersion = dataVersionService.getVersion(userId);
+    String forMonth = currentMonth().toString();
+
+    double[] history = lastNMonthsTotals(userId, MAX_HORIZON);
+    Map<String, Double> catSpending = categorySpendingLast3Months(userId);
+
+    Map<Integer, AIPredictionResponse> predictions = new HashMap<>();
+    for (int horizon : SUPPORTED_HORIZONS) {
+      double[] monthly = Arrays.copyOfRange(history, MAX_HORIZON - horizon, MAX_HORIZON);
+      predictions.put(horizon, buildPrediction(userId, horizon, monthly, catSpending));
+    }
+
+    transactionTemplate.executeWithoutResult(status -> {
+      LocalDateTime now = LocalDateTime.now();
+      predictions.forEach((horizon, prediction) -> {
+        try {
+          budgetPredictionRepo.upsert(userId, horizon, dataVersion, forMonth, objectMapper.writeValueAsString(prediction), now);
+        } catch (JsonProcessingException e) {
+          throw new RuntimeException("Cannot store prediction: " + e.getMessage(), e);
+        }
+      });
+    });
+    return predictions;
+  }
+
+  /**
+   * Whether every horizon is already stored for the profile's current data version and month,
+   * in which case refreshProfile would only rewrite the same rows.
+   */
+  public boolean isUpToDate(Long userId) {
+    return budgetPredictionRepo.countCurrent(userId, currentMonth().toString()) >= SUPPORTED_HORIZONS.size();
+  }
+
+  private static YearMonth currentMonth() {
+    return YearMonth.now(PREDICTION_ZONE_ID);
+  }
+
+  private AIPredictionResponse buildPrediction(Long userId, int horizon, double[] monthly, Map<String, Double> catSpending) {
     double slope = linearRegressionSlope(monthly);
     double variancePct = regressionVariancePercent(monthly, slope);
 
@@ -48,7 +135,6 @@ public class AIPredictionService {
     String confidence = confidenceFromVariance(variancePct);
 
     // Category breakdown: Sum of last 3 months
-    Map<String, Double> catSpending = categorySpendingLast3Months(userId);
     Map<String, String> categoryChange = formatCategoryBreakdown(catSpending);
 
     String reason = buildReason(trend, slope);
@@ -59,6 +145,7 @@ public class AIPredictionService {
 
     return AIPredictionResponse.builder()
         .userId(userId)
+        .horizonMonths(horizon)
         .predictedExpenseNextMonth(BigDecimal.valueOf(predicted).setScale(0, RoundingMode.HALF_UP))
         .suggestedSavingGoal(BigDecimal.valueOf(savingGoal).setScale(0, RoundingMode.HALF_UP))
         .trend(trend)
@@ -70,16 +157,23 @@ public class AIPredictionService {
         .build();
   }
 
+  private int resolveHorizon(Integer months) {
+    int horizon = months != null ? months : defaultHorizonMonths;
+    if (!SUPPORTED_HORIZONS.contains(horizon)) {
+      throw new RuntimeException("Unsupported prediction horizon: " + horizon + ". Expected one of 12, 24 or 36 months");
+    }
+    return horizon;
+  }
+
   private double[] lastNMonthsTotals(Long userId, int n) {
     double[] out = new double[n];
-    YearMonth now = YearMonth.now();
+    YearMonth now = currentMonth();
+    // One read of the monthly rollups instead of loading every expense of every month
+    Map<YearMonth, BigDecimal> totals = monthlyRollupService.getMonthlyTotals(userId, MonthlyRollupService.TYPE_EXPENSE, now.minusMonths(n - 1), now);
     for (int i = n - 1; i >= 0; i--) {
       YearMonth ym = now.minusMonths(n - 1 - i);
-      LocalDate start = ym.atDay(1);
-      LocalDate end = ym.atEndOfMonth();
-      var list = expenseRepo.findByProfileIdAndDateBetween(userId, start, end);
-      double sum = list.stream().map(e -> e.getAmount() != null ? e.getAmount().doubleValue() : 0.0).reduce(0.0, Double::sum);
-      out[i] = sum;
+      BigDecimal sum = totals.get(ym);
+      out[i] = sum != null ? sum.doubleValue() : 0.0;
     }
     return out;
   }
@@ -151,18 +245,16 @@ public class AIPredictionService {
   }
 
   private Map<String, Double> categorySpendingLast3Months(Long userId) {
-    YearMonth now = YearMonth.now();
+    YearMonth now = currentMonth();
     LocalDate start = now.minusMonths(2).atDay(1); // Start of 3 months ago
     LocalDate end = now.atEndOfMonth(); // End of current month
 
+    // Only the caller's categories that actually have spending in the window come back
     Map<String, Double> result = new HashMap<>();
-    List<CategoryEntity> categories = categoryRepo.findAll();
-    
-    for (CategoryEntity c : categories) {
-        BigDecimal sumBD = expenseRepo.findTotalExpenseByProfileIdAndCategoryIdAndDateBetween(userId, c.getId(), start, end);
-        double sum = sumBD != null ? sumBD.doubleValue() : 0.0;
+    for (CategoryTotalDTO c : expenseRepo.findCategoryTotalsByProfileIdAndDateBetween(userId, start, end)) {
+        double sum = c.getTotal() != null ? c.getTotal().doubleValue() : 0.0;
         if (sum > 0) {
-            result.put(c.getName(), sum);
+            result.merge(c.getCategoryName(), sum, Double::sum);
         }
     }
     return result;
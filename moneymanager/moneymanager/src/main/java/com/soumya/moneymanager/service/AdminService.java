@@ -32,16 +32,17 @@ public class AdminService {
   private final IncomeRepo incomeRepo;
   private final ExpenseRepo expenseRepo;
   private final ProfileService profileService;
+  private final CategoryCacheService categoryCacheService;
 
   @Value("${app.admin.emails:}")
   private String adminEmailsCsv;
 
   public boolean isCurrentUserAdmin() {
-    ProfileEntity me = profileService.getCurrentProfile();
-    if (me == null) return false;
+    String email = profileService.getCurrentEmail();
+    if (email == null) return false;
     if (adminEmailsCsv == null || adminEmailsCsv.isBlank()) return false;
     for (String e : adminEmailsCsv.split(",")) {
-      if (me.getEmail().equalsIgnoreCase(e.trim())) return true;
+      if (email.equalsIgnoreCase(e.trim())) return true;
     }
     return false;
   }
@@ -81,7 +82,7 @@ public class AdminService {
     m.put("id", i.getId());
     m.put("type", "INCOME");
     m.put("name", i.getName());
-    m.put("category", i.getCategory()!=null? i.getCategory().getName():null);
+    m.put("category", i.getCategory()!=null? categoryCacheService.getName(i.getProfile().getId(), i.getCategory().getId()):null);
     m.put("amount", i.getAmount());
     m.put("date", i.getDate());
     return m;
@@ -92,7 +93,7 @@ public class AdminService {
     m.put("id", e.getId());
     m.put("type", "EXPENSE");
     m.put("name", e.getName());
-    m.put("category", e.getCategory()!=null? e.getCategory().getName():null);
+    m.put("category", e.getCategory()!=null? categoryCacheService.getName(e.getProfile().getId(), e.getCategory().getId()):null);
     m.put("amount", e.getAmount());
     m.put("date", e.getDate());
     return m;
@@ -1,8 +1,5 @@
 package com.soumya.moneymanager.service;
 
-import java.util.Collections;
-
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -10,6 +7,7 @@ import org.springframework.stereotype.Service;
 
 import com.soumya.moneymanager.entity.ProfileEntity;
 import com.soumya.moneymanager.repository.ProfileRepo;
+import com.soumya.moneymanager.security.ProfilePrincipal;
 
 import lombok.RequiredArgsConstructor;
 
@@ -24,14 +22,13 @@ public class AppUserDetailsService implements UserDetailsService {
 
     ProfileEntity profile = profileRepo.findByEmail(email)
         .orElseThrow(() -> new UsernameNotFoundException("User not found" + email));
-    System.out.println("Loaded user from DB: " + profile.getEmail());
-    System.out.println("Encoded password in DB: " + profile.getPassword());
-
-    return User.builder()
-        .username(profile.getEmail())
-        .password(profile.getPassword())
-        .authorities(Collections.emptyList())
-        .build();
+
+    return new ProfilePrincipal(
+        profile.getId(),
+        profile.getEmail(),
+        profile.getFullName(),
+        profile.getPassword(),
+        Boolean.TRUE.equals(profile.getIsActive()));
 
   }
 
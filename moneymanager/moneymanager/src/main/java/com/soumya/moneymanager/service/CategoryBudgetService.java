@@ -1,21 +1,19 @@
 package com.soumya.moneymanager.service;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.soumya.moneymanager.dto.BudgetSpendDTO;
 import com.soumya.moneymanager.dto.CategoryBudgetDTO;
 import com.soumya.moneymanager.entity.CategoryBudgetEntity;
 import com.soumya.moneymanager.entity.CategoryEntity;
-import com.soumya.moneymanager.entity.ProfileEntity;
 import com.soumya.moneymanager.repository.CategoryBudgetRepository;
 import com.soumya.moneymanager.repository.CategoryRepo;
-import com.soumya.moneymanager.repository.ExpenseRepo;
 
 import lombok.RequiredArgsConstructor;
 
@@ -25,17 +23,17 @@ public class CategoryBudgetService {
 
   private final CategoryBudgetRepository categoryBudgetRepository;
   private final CategoryRepo categoryRepo;
-  private final ExpenseRepo expenseRepo;
   private final ProfileService profileService;
+  private final DataVersionService dataVersionService;
 
   private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
 
   /**
    * Create or update a category budget
    */
+  @Transactional
   public CategoryBudgetDTO createOrUpdateBudget(CategoryBudgetDTO budgetDTO) {
-    ProfileEntity profile = profileService.getCurrentProfile();
-    Long userId = profile.getId();
+    Long userId = profileService.getCurrentProfileId();
 
     // Validate month format (YYYY-MM)
     validateMonthFormat(budgetDTO.getMonth());
@@ -64,6 +62,7 @@ public class CategoryBudgetService {
     }
 
     CategoryBudgetEntity savedBudget = categoryBudgetRepository.save(budgetEntity);
+    dataVersionService.bump(userId);
     return toDTO(savedBudget, category.getName());
   }
 
@@ -72,36 +71,36 @@ public class CategoryBudgetService {
    * Computes spent amount, remaining, and status for each budget
    */
   public List<CategoryBudgetDTO> getBudgetsForMonth(String month, Long userId) {
-    ProfileEntity currentProfile = profileService.getCurrentProfile();
+    return getBudgetsForMonthRange(month, month, userId);
+  }
+
+  /**
+   * Get all budgets for a user between two months (inclusive, YYYY-MM)
+   * Budget, category name and spent amount come back from a single joined query
+   */
+  public List<CategoryBudgetDTO> getBudgetsForMonthRange(String fromMonth, String toMonth, Long userId) {
+    Long currentProfileId = profileService.getCurrentProfileId();
     
     // Use provided userId or current user's id
-    Long targetUserId = (userId != null) ? userId : currentProfile.getId();
+    Long targetUserId = (userId != null) ? userId : currentProfileId;
     
     // Validate that user can only access their own budgets (or admin logic can be added here)
-    if (!targetUserId.equals(currentProfile.getId())) {
+    if (!targetUserId.equals(currentProfileId)) {
       throw new RuntimeException("Unauthorized to access budgets for this user");
     }
 
-    validateMonthFormat(month);
-
-    // Parse month to get start and end dates
-    YearMonth yearMonth = YearMonth.parse(month, MONTH_FORMATTER);
-    LocalDate startDate = yearMonth.atDay(1);
-    LocalDate endDate = yearMonth.atEndOfMonth();
-
-    // Get all budgets for user and month
-    List<CategoryBudgetEntity> budgets = categoryBudgetRepository.findByUserIdAndMonth(targetUserId, month);
+    validateMonthFormat(fromMonth);
+    validateMonthFormat(toMonth);
+    if (fromMonth.compareTo(toMonth) > 0) {
+      throw new RuntimeException("Invalid month range: " + fromMonth + " is after " + toMonth);
+    }
 
-    // Convert to DTOs and compute spent amounts
-    return budgets.stream().map(budget -> {
-      CategoryEntity category = categoryRepo.findById(budget.getCategoryId())
-          .orElseThrow(() -> new RuntimeException("Category not found for budget"));
+    List<BudgetSpendDTO> rows = categoryBudgetRepository.findBudgetsWithSpent(targetUserId, fromMonth, toMonth);
 
-      // Compute spent amount using existing expense repository
-      BigDecimal spentBigDecimal = expenseRepo.findTotalExpenseByProfileIdAndCategoryIdAndDateBetween(
-          budget.getUserId(), budget.getCategoryId(), startDate, endDate);
-      
-      double spentAmount = (spentBigDecimal != null) ? spentBigDecimal.doubleValue() : 0.0;
+    // Convert to DTOs and compute remaining and status
+    return rows.stream().map(row -> {
+      CategoryBudgetEntity budget = row.getBudget();
+      double spentAmount = (row.getSpent() != null) ? row.getSpent().doubleValue() : 0.0;
       double remaining = budget.getBudgetAmount() - spentAmount;
       String status = (spentAmount <= budget.getBudgetAmount()) ? "WITHIN" : "EXCEEDED";
 
@@ -109,7 +108,7 @@ public class CategoryBudgetService {
           .id(budget.getId())
           .userId(budget.getUserId())
           .categoryId(budget.getCategoryId())
-          .categoryName(category.getName())
+          .categoryName(row.getCategoryName())
           .month(budget.getMonth())
           .budgetAmount(budget.getBudgetAmount())
           .spentAmount(spentAmount)
@@ -0,0 +1,126 @@
+package com.soumya.moneymanager.service;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.soumya.moneymanager.dto.CategoryDTO;
+import com.soumya.moneymanager.entity.CategoryEntity;
+import com.soumya.moneymanager.repository.CategoryRepo;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * In-process cache of each profile's categories, used by the category pickers and to fill in
+ * category names on income/expense DTOs without loading the lazy association. Entries expire
+ * after ttl-seconds and the cache holds at most max-profiles entries. Category writes on this
+ * instance invalidate the profile when they commit; the TTL bounds staleness from other instances.
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryCacheService {
+
+  private final CategoryRepo categoryRepo;
+
+  @Value("${money.manager.category-cache.ttl-seconds:300}")
+  private long ttlSeconds;
+
+  @Value("${money.manager.category-cache.max-profiles:10000}")
+  private int maxProfiles;
+
+  private final Map<Long, Entry> cache = new ConcurrentHashMap<>();
+  // Per profile, bumped on every invalidation; a load that overlapped one for its profile is not
+  // cached. One counter per profile that had a category write, never trimmed, so a trimmed
+  // counter cannot restart at a value an in-flight load already read.
+  private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+  public List<CategoryDTO> getCategories(Long profileId) {
+    return entry(profileId).categories();
+  }
+
+  /**
+   * Name of one of the profile's categories, or null if it does not exist.
+   */
+  public String getName(Long profileId, Long categoryId) {
+    if (categoryId == null) return null;
+    CategoryDTO category = entry(profileId).byId().get(categoryId);
+    if (category == null) {
+      // Possibly created on another instance since we loaded; reload once
+      cache.remove(profileId);
+      category = entry(profileId).byId().get(categoryId);
+    }
+    return category != null ? category.getName() : null;
+  }
+
+  /**
+   * Drop the profile's entry once the current transaction commits (immediately without one).
+   */
+  public void invalidate(Long profileId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      evict(profileId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        evict(profileId);
+      }
+    });
+  }
+
+  private Entry entry(Long profileId) {
+    long now = System.currentTimeMillis();
+    Entry entry = cache.get(profileId);
+    if (entry != null && now - entry.loadedAt() < ttlSeconds * 1000) {
+      return entry;
+    }
+
+    long loadGeneration = generations.getOrDefault(profileId, 0L);
+    Map<Long, CategoryDTO> byId = new LinkedHashMap<>();
+    for (CategoryEntity category : categoryRepo.findByProfileId(profileId)) {
+      byId.put(category.getId(), toDTO(category, profileId));
+    }
+    entry = new Entry(List.copyOf(byId.values()), byId, now);
+    if (generations.getOrDefault(profileId, 0L) == loadGeneration) {
+      cache.put(profileId, entry);
+      if (cache.size() > maxProfiles) trim(now);
+    }
+    return entry;
+  }
+
+  private void evict(Long profileId) {
+    generations.merge(profileId, 1L, Long::sum);
+    cache.remove(profileId);
+  }
+
+  // Expired entries first, then the oldest ones
+  private void trim(long now) {
+    cache.values().removeIf(e -> now - e.loadedAt() >= ttlSeconds * 1000);
+    while (cache.size() > maxProfiles) {
+      cache.entrySet().stream()
+          .min(Comparator.comparingLong(e -> e.getValue().loadedAt()))
+          .ifPresent(oldest -> cache.remove(oldest.getKey(), oldest.getValue()));
+    }
+  }
+
+  private static CategoryDTO toDTO(CategoryEntity categoryEntity, Long profileId) {
+    return CategoryDTO.builder()
+        .id(categoryEntity.getId())
+        .name(categoryEntity.getName())
+        .profileId(profileId)
+        .icon(categoryEntity.getIcon())
+        .type(categoryEntity.getType())
+        .createdAt(categoryEntity.getCreatedAt())
+        .updatedAt(categoryEntity.getUpdatedAt())
+        .build();
+  }
+
+  private record Entry(List<CategoryDTO> categories, Map<Long, CategoryDTO> byId, long loadedAt) {}
+}
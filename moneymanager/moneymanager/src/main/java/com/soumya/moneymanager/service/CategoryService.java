@@ -3,6 +3,7 @@ package com.soumya.moneymanager.service;
 import java.util.List;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.soumya.moneymanager.dto.CategoryDTO;
 import com.soumya.moneymanager.entity.CategoryEntity;
@@ -17,9 +18,12 @@ public class CategoryService {
 
   private final CategoryRepo categoryRepo;
   private final ProfileService profileService;
+  private final DataVersionService dataVersionService;
+  private final CategoryCacheService categoryCacheService;
 
   // Save category
 
+  @Transactional
   public CategoryDTO saveCategory(CategoryDTO categoryDTO) {
     ProfileEntity profile = profileService.getCurrentProfile();
     if(categoryRepo.existsByNameAndProfileId(categoryDTO.getName(), profile.getId()))
@@ -28,6 +32,8 @@ public class CategoryService {
     }
      CategoryEntity newCategory = toEntity(categoryDTO, profile);
      CategoryEntity savedCategory = categoryRepo.save(newCategory);
+     dataVersionService.bump(profile.getId());
+     categoryCacheService.invalidate(profile.getId());
      return toDTO(savedCategory);
   }
 
@@ -54,19 +60,20 @@ public class CategoryService {
   }
 
 
-  // get categorues for current user
+  // get categorues for current user (served from the per-profile cache)
   public List<CategoryDTO> getCategoriesForCurrentUser(){
-    ProfileEntity profile=profileService.getCurrentProfile();
-    List<CategoryEntity> categories=categoryRepo.findByProfileId(profile.getId());
-    return categories.stream().map(this::toDTO).toList();
+    Long profileId=profileService.getCurrentProfileId();
+    return categoryCacheService.getCategories(profileId);
   }
 // get categories by type
   public List<CategoryDTO> getCategoriesByTypeForCurrentUser(String type){
-    ProfileEntity profile=profileService.getCurrentProfile();
-    List<CategoryEntity> categories=categoryRepo.findByTypeAndProfileId(type, profile.getId());
-    return categories.stream().map(this::toDTO).toList();
+    Long profileId=profileService.getCurrentProfileId();
+    return categoryCacheService.getCategories(profileId).stream()
+        .filter(category -> type != null && type.equalsIgnoreCase(category.getType()))
+        .toList();
   }
 
+  @Transactional
   public CategoryDTO updateCategory(Long id,CategoryDTO categoryDTO)
   {
     ProfileEntity profile=profileService.getCurrentProfile();
@@ -76,14 +83,19 @@ public class CategoryService {
     category.setType(categoryDTO.getType());
     
     CategoryEntity updatedCategory=categoryRepo.save(category);
+    dataVersionService.bump(profile.getId());
+    categoryCacheService.invalidate(profile.getId());
     return toDTO(updatedCategory);
   }
   
+  @Transactional
   public void deleteCategory(Long id)
   {
 	  ProfileEntity profile=profileService.getCurrentProfile();
 	    CategoryEntity category=categoryRepo.findByIdAndProfileId(id, profile.getId()).orElseThrow(() -> new RuntimeException("Category not found"));
 	    categoryRepo.delete(category);
+	    dataVersionService.bump(profile.getId());
+	    categoryCacheService.invalidate(profile.getId());
   }
 
 }
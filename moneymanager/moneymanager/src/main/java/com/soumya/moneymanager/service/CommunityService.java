@@ -1,30 +1,57 @@
 package com.soumya.moneymanager.service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
-import java.util.*;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.soumya.moneymanager.dto.CommentDTO;
+import com.soumya.moneymanager.dto.CursorPageDTO;
 import com.soumya.moneymanager.dto.PostDTO;
 import com.soumya.moneymanager.entity.CommentEntity;
 import com.soumya.moneymanager.entity.PostEntity;
 import com.soumya.moneymanager.entity.ProfileEntity;
 import com.soumya.moneymanager.repository.CommentRepo;
+import com.soumya.moneymanager.repository.PostLikeRepo;
 import com.soumya.moneymanager.repository.PostRepo;
+import com.soumya.moneymanager.utils.CursorUtil;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class CommunityService {
 
+  static final String JOB_COMMENT_COUNT_BACKFILL = "commentCountBackfill";
+
   private final PostRepo postRepo;
   private final CommentRepo commentRepo;
+  private final PostLikeRepo postLikeRepo;
   private final ProfileService profileService;
-  private final Map<Long, Set<Long>> userLikes = new HashMap<>();
+  private final LiveEventService liveEventService;
+  private final JobCoordinatorService jobCoordinatorService;
+
+  @Value("${money.manager.community.preview-comments:3}")
+  private int previewComments;
+
+  @Value("${money.manager.community.feed-cache-ttl-ms:5000}")
+  private long feedCacheTtlMs;
+
+  // First feed page per page size; bumping the generation discards entries being loaded
+  private final Map<Integer, CachedFeedPage> firstPageCache = new ConcurrentHashMap<>();
+  private final AtomicLong feedGeneration = new AtomicLong();
 
   public List<PostDTO> getAllPosts() {
     return postRepo.findAll().stream()
@@ -32,6 +59,76 @@ public class CommunityService {
         .collect(Collectors.toList());
   }
 
+  /**
+   * One page of the feed, newest first: one query for the posts and their authors and one
+   * windowed query for the latest preview-comments comments of each post. Comment counts come
+   * from the post row. The first page is served from an in-process cache for up to
+   * feed-cache-ttl-ms; writes on this instance invalidate it when they commit, the TTL bounds
+   * how long other instances' writes take to show up.
+   */
+  public CursorPageDTO<PostDTO> getFeed(String cursor, Integer limit) {
+    int pageSize = CursorUtil.pageSize(limit);
+    if (cursor != null && !cursor.isBlank()) {
+      return loadFeedPage(CursorUtil.decodeId(cursor), pageSize);
+    }
+
+    CachedFeedPage cached = firstPageCache.get(pageSize);
+    long now = System.currentTimeMillis();
+    if (cached != null && cached.generation() == feedGeneration.get() && now - cached.loadedAt() < feedCacheTtlMs) {
+      return cached.page();
+    }
+    // Read the generation first: if a write commits while we load, the result is not cached
+    long generation = feedGeneration.get();
+    CursorPageDTO<PostDTO> page = loadFeedPage(Long.MAX_VALUE, pageSize);
+    if (feedGeneration.get() == generation) {
+      firstPageCache.put(pageSize, new CachedFeedPage(page, generation, now));
+    }
+    return page;
+  }
+
+  private CursorPageDTO<PostDTO> loadFeedPage(Long beforeId, int pageSize) {
+    // One extra row tells whether there is a next page
+    List<PostEntity> posts = postRepo.findFeedPage(beforeId, PageRequest.of(0, pageSize + 1));
+    String nextCursor = null;
+    if (posts.size() > pageSize) {
+      posts = posts.subList(0, pageSize);
+      nextCursor = CursorUtil.encodeId(posts.get(pageSize - 1).getId());
+    }
+    if (posts.isEmpty()) {
+      return new CursorPageDTO<>(List.of(), null);
+    }
+
+    List<Long> ids = posts.stream().map(PostEntity::getId).toList();
+    Map<Long, List<CommentDTO>> previews = previewComments > 0
+        ? commentRepo.findPreviewComments(ids, previewComments).stream().collect(Collectors.groupingBy(CommentDTO::getPostId))
+        : Map.of();
+
+    List<PostDTO> items = posts.stream()
+        .map(post -> toDTO(post, previews.getOrDefault(post.getId(), List.of())))
+        .toList();
+    return new CursorPageDTO<>(List.copyOf(items), nextCursor);
+  }
+
+  /**
+   * One page of a post's comments in posting order.
+   */
+  @Transactional(readOnly = true)
+  public CursorPageDTO<CommentDTO> getComments(Long postId, String cursor, Integer limit) {
+    if (!postRepo.existsById(postId)) {
+      throw new RuntimeException("Post not found");
+    }
+    int pageSize = CursorUtil.pageSize(limit);
+    Long afterId = cursor != null && !cursor.isBlank() ? CursorUtil.decodeId(cursor) : 0L;
+
+    List<CommentEntity> comments = commentRepo.findThreadPage(postId, afterId, PageRequest.of(0, pageSize + 1));
+    String nextCursor = null;
+    if (comments.size() > pageSize) {
+      comments = comments.subList(0, pageSize);
+      nextCursor = CursorUtil.encodeId(comments.get(pageSize - 1).getId());
+    }
+    return new CursorPageDTO<>(comments.stream().map(this::toDTO).toList(), nextCursor);
+  }
+
   public PostDTO getPost(Long id) {
     PostEntity post = postRepo.findById(id).orElseThrow(() -> new RuntimeException("Post not found"));
     return toDTOWithCounts(post);
@@ -40,9 +137,12 @@ public class CommunityService {
   @Transactional
   public PostDTO createPost(String content) {
     ProfileEntity user = profileService.getCurrentProfile();
-    PostEntity post = PostEntity.builder().user(user).content(content).likes(0).build();
+    PostEntity post = PostEntity.builder().user(user).content(content).likes(0).commentCount(0).build();
     post = postRepo.save(post);
-    return toDTOWithCounts(post);
+    invalidateFeedAfterCommit();
+    PostDTO created = toDTO(post, List.of());
+    liveEventService.publish(null, "post.created", created);
+    return created;
   }
 
   @Transactional
@@ -51,41 +151,50 @@ public class CommunityService {
     PostEntity post = postRepo.findById(postId).orElseThrow(() -> new RuntimeException("Post not found"));
     CommentEntity c = CommentEntity.builder().post(post).user(user).content(content).build();
     c = commentRepo.save(c);
-    return toDTO(c);
+    postRepo.incrementCommentCount(postId);
+    invalidateFeedAfterCommit();
+    CommentDTO created = toDTO(c);
+    liveEventService.publish(null, "comment.created", created);
+    return created;
   }
 
+  /**
+   * Toggle the current user's like. Removing an existing like or inserting a new one is decided by
+   * the affected row count, and the counter moves only when a row changed, so concurrent or
+   * repeated requests cannot double count.
+   */
   @Transactional
-  public synchronized PostDTO likePost(Long postId) {
-    PostEntity post = postRepo.findById(postId).orElseThrow(() -> new RuntimeException("Post not found"));
-    ProfileEntity user = profileService.getCurrentProfile();
-    Long userId = user.getId();
-
-    Set<Long> likedUsers = userLikes.computeIfAbsent(postId, k -> new HashSet<>());
-
-    if (likedUsers.contains(userId)) {
-      likedUsers.remove(userId);
-      post.setLikes(Math.max(0, post.getLikes() - 1));
-      post = postRepo.save(post);
-      return toDTOWithCounts(post);
-    } else {
-      likedUsers.add(userId);
-      post.setLikes(post.getLikes() + 1);
-      post = postRepo.save(post);
-      return toDTOWithCounts(post);
+  public PostDTO likePost(Long postId) {
+    if (!postRepo.existsById(postId)) {
+      throw new RuntimeException("Post not found");
+    }
+    Long userId = profileService.getCurrentProfileId();
+
+    if (postLikeRepo.deleteLike(postId, userId) > 0) {
+      postRepo.adjustLikes(postId, -1);
+    } else if (postLikeRepo.insertIfAbsent(postId, userId) > 0) {
+      postRepo.adjustLikes(postId, 1);
     }
+    invalidateFeedAfterCommit();
+    PostEntity post = postRepo.findById(postId).orElseThrow(() -> new RuntimeException("Post not found"));
+    liveEventService.publish(null, "post.liked", Map.of("postId", postId, "likes", post.getLikes()));
+    return toDTOWithCounts(post);
   }
 
   private PostDTO toDTOWithCounts(PostEntity post) {
-    List<CommentEntity> comments = commentRepo.findByPost(post);
+    return toDTO(post, commentRepo.findByPost(post).stream().map(this::toDTO).toList());
+  }
+
+  private PostDTO toDTO(PostEntity post, List<CommentDTO> comments) {
     return PostDTO.builder()
         .id(post.getId())
         .userId(post.getUser().getId())
         .userName(post.getUser().getFullName())
         .content(post.getContent())
         .likes(post.getLikes())
-        .commentCount(comments.size())
+        .commentCount(post.getCommentCount())
         .createdAt(post.getCreatedAt())
-        .comments(comments.stream().map(this::toDTO).toList())
+        .comments(comments)
         .build();
   }
 
@@ -107,11 +216,47 @@ public class CommunityService {
     if (!post.getUser().getId().equals(current.getId())) {
       throw new RuntimeException("Not authorized to delete this post");
     }
-    List<CommentEntity> comments = commentRepo.findByPost(post);
-    if (!comments.isEmpty()) {
-      commentRepo.deleteAll(comments);
-    }
+    commentRepo.deleteByPostId(postId);
+    postLikeRepo.deleteByPostId(postId);
     postRepo.delete(post);
-    userLikes.remove(postId);
+    invalidateFeedAfterCommit();
+    liveEventService.publish(null, "post.deleted", Map.of("postId", postId));
+  }
+
+  /**
+   * One-time backfill of the comment counters for posts commented on before the counter
+   * column existed. Runs on the first instance to start; later starts skip it.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfillCommentCounts() {
+    boolean ran = jobCoordinatorService.runOnce(JOB_COMMENT_COUNT_BACKFILL, () -> {
+      int repaired = postRepo.reconcileCommentCounts();
+      log.info("Comment counters backfilled for {} posts", repaired);
+      return repaired;
+    });
+    if (ran) {
+      invalidateFeed();
+    }
+  }
+
+  // After commit, so a concurrent reader cannot cache the pre-write state once we have cleared it
+  private void invalidateFeedAfterCommit() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidateFeed();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        invalidateFeed();
+      }
+    });
   }
+
+  private void invalidateFeed() {
+    feedGeneration.incrementAndGet();
+    firstPageCache.clear();
+  }
+
+  private record CachedFeedPage(CursorPageDTO<PostDTO> page, long generation, long loadedAt) {}
 }
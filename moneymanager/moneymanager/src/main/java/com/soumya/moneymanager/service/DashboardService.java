@@ -2,53 +2,169 @@ package com.soumya.moneymanager.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import static java.util.stream.Stream.concat;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
 import org.springframework.stereotype.Service;
 
 import com.soumya.moneymanager.dto.ExpenseDTO;
 import com.soumya.moneymanager.dto.IncomeDTO;
 import com.soumya.moneymanager.dto.RecentTransactionDTO;
-import com.soumya.moneymanager.entity.ProfileEntity;
+import com.soumya.moneymanager.utils.TaskExecutors;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dashboard figures. The six underlying queries are independent, so they run concurrently on
+ * a bounded pool (with the caller's SecurityContext) and the response waits for the slowest
+ * of them, up to deadline-ms. Sections still missing at the deadline, or that failed, are
+ * returned as null, as is every figure derived from them, and listed under "partialSections"
+ * with "partial": true. Partial responses are never given an ETag (see DataVersionEtagAdvice).
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class DashboardService {
+  private static final int HISTORY_MONTHS = 6;
+
   private final IncomeService incomeService;
   private final ExpenseService expenseService;
   private final ProfileService profileService;
+  private final MonthlyRollupService monthlyRollupService;
 
-  public Map<String, Object> getDashboardData(LocalDate startDate, LocalDate endDate) {
-    ProfileEntity profile = profileService.getCurrentProfile();
-    Map<String, Object> returnValue = new LinkedHashMap<>();
+  @Value("${money.manager.dashboard.pool-size:6}")
+  private int poolSize;
+
+  @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+  private int connectionPoolSize;
 
-    // 1. Fetch data for the requested range (for totals and recent transactions)
-    List<IncomeDTO> rangeIncomes = incomeService.getIncomesForDateRange(startDate, endDate);
-    List<ExpenseDTO> rangeExpenses = expenseService.getExpensesForDateRange(startDate, endDate);
+  @Value("${money.manager.dashboard.queue-capacity:200}")
+  private int queueCapacity;
 
-    BigDecimal totalIncome = rangeIncomes.stream()
-        .map(IncomeDTO::getAmount)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+  @Value("${money.manager.dashboard.deadline-ms:2000}")
+  private long deadlineMs;
 
-    BigDecimal totalExpense = rangeExpenses.stream()
-        .map(ExpenseDTO::getAmount)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  private ThreadPoolTaskExecutor dashboardPool;
+  private Executor dashboardExecutor;
+
+  @PostConstruct
+  void init() {
+    // Every worker holds a connection while its query runs; leave most of them to other endpoints
+    int workers = Math.min(poolSize, Math.max(1, connectionPoolSize / 3));
+    dashboardPool = TaskExecutors.bounded("dashboard-", workers, queueCapacity, virtualThreads);
+    dashboardExecutor = new DelegatingSecurityContextExecutor(dashboardPool);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    dashboardPool.shutdown();
+  }
 
-    returnValue.put("totalBalance", totalIncome.subtract(totalExpense));
+  public Map<String, Object> getDashboardData(LocalDate startDate, LocalDate endDate) {
+    Long profileId = profileService.getCurrentProfileId();
+    Map<String, Object> returnValue = new LinkedHashMap<>();
+
+    // Monthly buckets for the last 6 months come from the per-profile monthly rollups.
+    // Last month, this month and the history below are all read from these buckets.
+    YearMonth currentMonth = YearMonth.now();
+    YearMonth firstMonth = currentMonth.minusMonths(HISTORY_MONTHS - 1);
+
+    // Fan out: every query starts now, the slowest one sets the latency
+    CompletableFuture<BigDecimal> totalIncomeF = fork(() -> incomeService.getTotalIncomeForDateRange(profileId, startDate, endDate));
+    CompletableFuture<BigDecimal> totalExpenseF = fork(() -> expenseService.getTotalExpenseForDateRange(profileId, startDate, endDate));
+    CompletableFuture<List<IncomeDTO>> latestIncomesF = fork(() -> incomeService.getLatest10IncomesForDateRange(profileId, startDate, endDate));
+    CompletableFuture<List<ExpenseDTO>> latestExpensesF = fork(() -> expenseService.getLatest10ExpensesForDateRange(profileId, startDate, endDate));
+    CompletableFuture<Map<YearMonth, BigDecimal>> monthlyIncomeF = fork(() ->
+        monthlyRollupService.getMonthlyTotals(profileId, MonthlyRollupService.TYPE_INCOME, firstMonth, currentMonth));
+    CompletableFuture<Map<YearMonth, BigDecimal>> monthlyExpenseF = fork(() ->
+        monthlyRollupService.getMonthlyTotals(profileId, MonthlyRollupService.TYPE_EXPENSE, firstMonth, currentMonth));
+
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+    List<String> missing = new ArrayList<>();
+    // A missing section is null; anything derived from it is null too rather than computed from a stand-in zero
+    BigDecimal totalIncome = join("totalIncome", totalIncomeF, deadline, missing);
+    BigDecimal totalExpense = join("totalExpense", totalExpenseF, deadline, missing);
+    List<IncomeDTO> latestIncomes = join("recentIncomes", latestIncomesF, deadline, missing);
+    List<ExpenseDTO> latestExpenses = join("recentExpenses", latestExpensesF, deadline, missing);
+    Map<YearMonth, BigDecimal> monthlyIncome = join("monthlyIncome", monthlyIncomeF, deadline, missing);
+    Map<YearMonth, BigDecimal> monthlyExpense = join("monthlyExpense", monthlyExpenseF, deadline, missing);
+
+    // 1. Totals for the requested range (one SUM per table, all time if no range is given)
+    returnValue.put("totalBalance", totalIncome != null && totalExpense != null ? totalIncome.subtract(totalExpense) : null);
     returnValue.put("totalIncome", totalIncome);
     returnValue.put("totalExpense", totalExpense);
 
-    // 2. Recent Transactions (Merged & Sorted)
-    List<RecentTransactionDTO> recentTransactions = concat(
-        rangeIncomes.stream().map(income -> RecentTransactionDTO.builder()
+    // 2. Recent Transactions (Merged & Sorted) - only the newest 10 rows of each type are loaded
+    List<RecentTransactionDTO> recentTransactions = latestIncomes != null && latestExpenses != null
+        ? mergeRecent(profileId, latestIncomes, latestExpenses) : null;
+
+    returnValue.put("recentTransactions", recentTransactions != null ? recentTransactions.stream().limit(10).toList() : null);
+    returnValue.put("recent5Expenses", latestExpenses != null ? latestExpenses.stream().limit(5).toList() : null);
+    returnValue.put("recent5Incomes", latestIncomes != null ? latestIncomes.stream().limit(5).toList() : null);
+
+    // 3. Last month, from the monthly buckets
+    YearMonth lastMonth = currentMonth.minusMonths(1);
+    returnValue.put("lastMonthIncome", monthlyIncome != null ? monthlyIncome.getOrDefault(lastMonth, BigDecimal.ZERO) : null);
+    returnValue.put("lastMonthExpense", monthlyExpense != null ? monthlyExpense.getOrDefault(lastMonth, BigDecimal.ZERO) : null);
+
+    // 4. Trend & Change Percentage
+    // The UI shows "vs last month", so compare the current calendar month with the previous one regardless of filter.
+    if (monthlyExpense != null) {
+      double prevExp = monthlyExpense.getOrDefault(lastMonth, BigDecimal.ZERO).doubleValue();
+      double currExp = monthlyExpense.getOrDefault(currentMonth, BigDecimal.ZERO).doubleValue();
+      double changePct = prevExp == 0 ? (currExp > 0 ? 100.0 : 0.0) : ((currExp - prevExp) / prevExp) * 100.0;
+
+      returnValue.put("changePercentage", BigDecimal.valueOf(changePct).setScale(1, java.math.RoundingMode.HALF_UP));
+      returnValue.put("trendDirection", changePct > 0 ? "UP" : (changePct < 0 ? "DOWN" : "FLAT"));
+    } else {
+      returnValue.put("changePercentage", null);
+      returnValue.put("trendDirection", null);
+    }
+
+    // 5. History (Last 6 Months)
+    // We need a list of {month: "Jan", income: 1000, expense: 500}
+    List<Map<String, Object>> history = new ArrayList<>();
+    for (int i = HISTORY_MONTHS - 1; i >= 0; i--) {
+        YearMonth ym = currentMonth.minusMonths(i);
+        Map<String, Object> monthData = new LinkedHashMap<>();
+        monthData.put("month", ym.getMonth().name().substring(0, 3)); // Jan, Feb
+        monthData.put("income", monthlyIncome != null ? monthlyIncome.getOrDefault(ym, BigDecimal.ZERO) : null);
+        monthData.put("expense", monthlyExpense != null ? monthlyExpense.getOrDefault(ym, BigDecimal.ZERO) : null);
+        history.add(monthData);
+    }
+    returnValue.put("history", history);
+
+    returnValue.put("partial", !missing.isEmpty());
+    if (!missing.isEmpty()) {
+      returnValue.put("partialSections", missing);
+    }
+    return returnValue;
+  }
+
+  private static List<RecentTransactionDTO> mergeRecent(Long profileId, List<IncomeDTO> latestIncomes, List<ExpenseDTO> latestExpenses) {
+    return concat(
+        latestIncomes.stream().map(income -> RecentTransactionDTO.builder()
             .id(income.getId())
-            .profileId(profile.getId())
+            .profileId(profileId)
             .icon(income.getIcon())
             .name(income.getName())
             .type("Income")
@@ -57,9 +173,9 @@ public class DashboardService {
             .createdAt(income.getCreatedAt())
             .updatedAt(income.getUpdatedAt())
             .build()),
-        rangeExpenses.stream().map(expense -> RecentTransactionDTO.builder()
+        latestExpenses.stream().map(expense -> RecentTransactionDTO.builder()
             .id(expense.getId())
-            .profileId(profile.getId())
+            .profileId(profileId)
             .icon(expense.getIcon())
             .name(expense.getName())
             .type("Expense")
@@ -75,68 +191,33 @@ public class DashboardService {
           }
           return cmp;
         }).collect(Collectors.toList());
+  }
 
-    returnValue.put("recentTransactions", recentTransactions.stream().limit(10).toList());
-    returnValue.put("recent5Expenses", rangeExpenses.stream().sorted((a,b)->b.getDate().compareTo(a.getDate())).limit(5).toList());
-    returnValue.put("recent5Incomes", rangeIncomes.stream().sorted((a,b)->b.getDate().compareTo(a.getDate())).limit(5).toList());
-
-    // 3. Last Month Stats (for comparison)
-    LocalDate now = LocalDate.now();
-    LocalDate lastMonthStart = now.minusMonths(1).withDayOfMonth(1);
-    LocalDate lastMonthEnd = now.minusMonths(1).withDayOfMonth(lastMonthStart.lengthOfMonth());
-    
-    List<IncomeDTO> lastMonthIncomes = incomeService.getIncomesForDateRange(lastMonthStart, lastMonthEnd);
-    List<ExpenseDTO> lastMonthExpenses = expenseService.getExpensesForDateRange(lastMonthStart, lastMonthEnd);
-
-    BigDecimal lastMonthIncomeTotal = lastMonthIncomes.stream().map(IncomeDTO::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-    BigDecimal lastMonthExpenseTotal = lastMonthExpenses.stream().map(ExpenseDTO::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-
-    returnValue.put("lastMonthIncome", lastMonthIncomeTotal);
-    returnValue.put("lastMonthExpense", lastMonthExpenseTotal);
-
-    // 4. Trend & Change Percentage (Current Month vs Last Month - approximate if range is not month-aligned, but useful)
-    // If specific range is selected, we compare that range total to last month? 
-    // Better: Compare "Current Month" (or selected range if it's a month) vs Last Month.
-    // For simplicity/robustness: Compare the *Last 30 Days* or *Current Month* vs *Previous Month*.
-    // Let's use the totals we just calculated for the requested range vs last month? 
-    // The requirement says "changePercentage". Let's assume it means "Current Month vs Last Month" regardless of filter, 
-    // OR "Selected Range vs Previous Period". 
-    // Given the UI usually shows "vs last month", let's compute Current Month vs Last Month explicitly for the stats cards.
-    
-    LocalDate thisMonthStart = now.withDayOfMonth(1);
-    LocalDate thisMonthEnd = now.withDayOfMonth(now.lengthOfMonth());
-    List<ExpenseDTO> thisMonthExpenses = expenseService.getExpensesForDateRange(thisMonthStart, thisMonthEnd);
-    BigDecimal thisMonthExpenseTotal = thisMonthExpenses.stream().map(ExpenseDTO::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-
-    double prevExp = lastMonthExpenseTotal.doubleValue();
-    double currExp = thisMonthExpenseTotal.doubleValue();
-    double changePct = prevExp == 0 ? (currExp > 0 ? 100.0 : 0.0) : ((currExp - prevExp) / prevExp) * 100.0;
-    
-    returnValue.put("changePercentage", BigDecimal.valueOf(changePct).setScale(1, java.math.RoundingMode.HALF_UP));
-    returnValue.put("trendDirection", changePct > 0 ? "UP" : (changePct < 0 ? "DOWN" : "FLAT"));
-
-    // 5. History (Last 6 Months)
-    // We need a list of {month: "Jan", income: 1000, expense: 500}
-    List<Map<String, Object>> history = new java.util.ArrayList<>();
-    for (int i = 5; i >= 0; i--) {
-        java.time.YearMonth ym = java.time.YearMonth.now().minusMonths(i);
-        LocalDate start = ym.atDay(1);
-        LocalDate end = ym.atEndOfMonth();
-        
-        List<IncomeDTO> mIncomes = incomeService.getIncomesForDateRange(start, end);
-        List<ExpenseDTO> mExpenses = expenseService.getExpensesForDateRange(start, end);
-        
-        BigDecimal mInc = mIncomes.stream().map(IncomeDTO::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal mExp = mExpenses.stream().map(ExpenseDTO::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        Map<String, Object> monthData = new LinkedHashMap<>();
-        monthData.put("month", ym.getMonth().name().substring(0, 3)); // Jan, Feb
-        monthData.put("income", mInc);
-        monthData.put("expense", mExp);
-        history.add(monthData);
+  private <T> CompletableFuture<T> fork(Supplier<T> query) {
+    try {
+      return CompletableFuture.supplyAsync(query, dashboardExecutor);
+    } catch (RejectedExecutionException e) {
+      // Pool saturated: degrade to running on the request thread; a failure still only costs this section
+      try {
+        return CompletableFuture.completedFuture(query.get());
+      } catch (RuntimeException failure) {
+        return CompletableFuture.failedFuture(failure);
+      }
     }
-    returnValue.put("history", history);
+  }
 
-    return returnValue;
+  // Waits until the shared deadline; a late or failed section is null and listed as missing
+  private <T> T join(String section, CompletableFuture<T> future, long deadline, List<String> missing) {
+    try {
+      long remaining = Math.max(0, deadline - System.nanoTime());
+      return future.get(remaining, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.warn("Dashboard section {} unavailable: {}", section, e.toString());
+    }
+    future.cancel(false);
+    missing.add(section);
+    return null;
   }
-}
\ No newline at end of file
+}
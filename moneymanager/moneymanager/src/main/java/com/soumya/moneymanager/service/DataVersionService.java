@@ -0,0 +1,34 @@
+package com.soumya.moneymanager.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.soumya.moneymanager.repository.ProfileRepo;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per-profile data version: a counter that changes whenever the profile's incomes, expenses,
+ * categories, budgets or goals change. Derived artifacts (export files) and HTTP ETags are
+ * keyed by it, so a cached result is valid exactly as long as the version it was built from.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+
+  private final ProfileRepo profileRepo;
+
+  /**
+   * Mark the profile's data as changed. Call inside the transaction making the change,
+   * so the new version becomes visible together with the data.
+   */
+  @Transactional
+  public void bump(Long profileId) {
+    profileRepo.incrementDataVersion(profileId);
+  }
+
+  public long getVersion(Long profileId) {
+    Long version = profileRepo.findDataVersion(profileId);
+    return version != null ? version : 0L;
+  }
+}
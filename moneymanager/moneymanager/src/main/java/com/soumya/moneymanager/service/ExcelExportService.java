@@ -1,81 +1,81 @@
 package com.soumya.moneymanager.service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.stream.Stream;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.soumya.moneymanager.dto.ExpenseDTO;
-import com.soumya.moneymanager.dto.IncomeDTO;
+import com.soumya.moneymanager.dto.ExportRowDTO;
+import com.soumya.moneymanager.repository.ExpenseRepo;
+import com.soumya.moneymanager.repository.IncomeRepo;
 
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Income/expense workbooks built with SXSSF: only the last ROW_WINDOW rows are kept in memory,
+ * older rows are flushed to a temp file. Column widths are estimated from the first rows
+ * instead of autoSizeColumn, which would need every row in memory.
+ */
 @Service
 @RequiredArgsConstructor
 public class ExcelExportService {
 
-    private final IncomeService incomeService;
-    private final ExpenseService expenseService;
+    private static final int ROW_WINDOW = 100;
+    private static final int WIDTH_SAMPLE_ROWS = 500;
+    private static final int MAX_COLUMN_CHARS = 60;
+    private static final String[] COLUMNS = {"ID", "Name", "Category", "Icon", "Amount", "Date", "Created At", "Updated At"};
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
-    public byte[] generateIncomeExcel() {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Income Details");
-
-            // Header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font font = workbook.createFont();
-            font.setBold(true);
-            headerStyle.setFont(font);
-
-            // Header row
-            Row headerRow = sheet.createRow(0);
-            String[] columns = {"ID", "Name", "Category", "Icon", "Amount", "Date", "Created At", "Updated At"};
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
-                cell.setCellStyle(headerStyle);
-            }
+    private final IncomeRepo incomeRepo;
+    private final ExpenseRepo expenseRepo;
+    private final ProfileService profileService;
 
-            // Fetch incomes
-            List<IncomeDTO> incomes = incomeService.getAllIncomesForCurrentUser();
-            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
-
-            int rowNum = 1;
-            for (IncomeDTO income : incomes) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(income.getId() != null ? income.getId() : 0);
-                row.createCell(1).setCellValue(income.getName() != null ? income.getName() : "");
-                row.createCell(2).setCellValue(income.getCategoryName() != null ? income.getCategoryName() : "N/A");
-                row.createCell(3).setCellValue(income.getIcon() != null ? income.getIcon() : "");
-                row.createCell(4).setCellValue(income.getAmount() != null ? income.getAmount().toPlainString() : "0.00");
-                row.createCell(5).setCellValue(income.getDate() != null ? income.getDate().format(dateFormatter) : "N/A");
-                row.createCell(6).setCellValue(income.getCreatedAt() != null ? income.getCreatedAt().format(dateFormatter) : "N/A");
-                row.createCell(7).setCellValue(income.getUpdatedAt() != null ? income.getUpdatedAt().format(dateFormatter) : "N/A");
-            }
-
-            for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+    @Transactional(readOnly = true)
+    public byte[] generateIncomeExcel() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        writeIncomeExcel(profileService.getCurrentProfileId(), bos);
+        return bos.toByteArray();
+    }
 
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            workbook.write(bos);
-            return bos.toByteArray();
+    @Transactional(readOnly = true)
+    public byte[] generateExpenseExcel() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        writeExpenseExcel(profileService.getCurrentProfileId(), bos);
+        return bos.toByteArray();
+    }
 
+    @Transactional(readOnly = true)
+    public void writeIncomeExcel(Long profileId, OutputStream out) {
+        try (Stream<ExportRowDTO> rows = incomeRepo.streamExportRowsByProfileId(profileId)) {
+            writeWorkbook("Income Details", rows, out);
         } catch (Exception e) {
             throw new RuntimeException("Error generating income Excel: " + e.getMessage());
         }
     }
-    public byte[] generateExpenseExcel() {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Expense Details");
+
+    @Transactional(readOnly = true)
+    public void writeExpenseExcel(Long profileId, OutputStream out) {
+        try (Stream<ExportRowDTO> rows = expenseRepo.streamExportRowsByProfileId(profileId)) {
+            writeWorkbook("Expense Details", rows, out);
+        } catch (Exception e) {
+            throw new RuntimeException("Error generating expense Excel: " + e.getMessage());
+        }
+    }
+
+    private void writeWorkbook(String sheetName, Stream<ExportRowDTO> rows, OutputStream out) throws Exception {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet(sheetName);
 
             // Header style
             CellStyle headerStyle = workbook.createCellStyle();
@@ -83,44 +83,63 @@ public class ExcelExportService {
             font.setBold(true);
             headerStyle.setFont(font);
 
+            // Amounts are real numbers so they can be summed and sorted in Excel
+            CellStyle amountStyle = workbook.createCellStyle();
+            amountStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+
+            // Widest value seen per column, in characters
+            int[] widths = new int[COLUMNS.length];
+
             // Header row
             Row headerRow = sheet.createRow(0);
-            String[] columns = {"ID", "Name", "Category", "Icon", "Amount", "Date", "Created At", "Updated At"};
-            for (int i = 0; i < columns.length; i++) {
+            for (int i = 0; i < COLUMNS.length; i++) {
                 Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
+                cell.setCellValue(COLUMNS[i]);
                 cell.setCellStyle(headerStyle);
+                widths[i] = COLUMNS[i].length();
             }
 
-            // Fetch expenses
-            List<ExpenseDTO> expenses = expenseService.getAllExpenseForCurrentUser();
-            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
-
-            int rowNum = 1;
-            for (ExpenseDTO expense : expenses) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(expense.getId() != null ? expense.getId() : 0);
-                row.createCell(1).setCellValue(expense.getName() != null ? expense.getName() : "");
-                row.createCell(2).setCellValue(expense.getCategoryName() != null ? expense.getCategoryName() : "N/A");
-                row.createCell(3).setCellValue(expense.getIcon() != null ? expense.getIcon() : "");
-                row.createCell(4).setCellValue(expense.getAmount() != null ? expense.getAmount().toPlainString() : "0.00");
-                row.createCell(5).setCellValue(expense.getDate() != null ? expense.getDate().format(dateFormatter) : "N/A");
-                row.createCell(6).setCellValue(expense.getCreatedAt() != null ? expense.getCreatedAt().format(dateFormatter) : "N/A");
-                row.createCell(7).setCellValue(expense.getUpdatedAt() != null ? expense.getUpdatedAt().format(dateFormatter) : "N/A");
-            }
-
-            for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
+            int[] rowNum = {1};
+            rows.forEach(item -> {
+                Row row = sheet.createRow(rowNum[0]);
+                String[] text = {
+                    item.getId() != null ? String.valueOf(item.getId()) : "0",
+                    item.getName() != null ? item.getName() : "",
+                    item.getCategoryName() != null ? item.getCategoryName() : "N/A",
+                    item.getIcon() != null ? item.getIcon() : "",
+                    item.getAmount() != null ? item.getAmount().toPlainString() : "0.00",
+                    item.getDate() != null ? item.getDate().format(DATE_FORMATTER) : "N/A",
+                    item.getCreatedAt() != null ? item.getCreatedAt().format(DATE_FORMATTER) : "N/A",
+                    item.getUpdatedAt() != null ? item.getUpdatedAt().format(DATE_FORMATTER) : "N/A"
+                };
+                row.createCell(0).setCellValue(item.getId() != null ? item.getId() : 0);
+                row.createCell(1).setCellValue(text[1]);
+                row.createCell(2).setCellValue(text[2]);
+                row.createCell(3).setCellValue(text[3]);
+                Cell amountCell = row.createCell(4);
+                amountCell.setCellValue(item.getAmount() != null ? item.getAmount().doubleValue() : 0d);
+                amountCell.setCellStyle(amountStyle);
+                row.createCell(5).setCellValue(text[5]);
+                row.createCell(6).setCellValue(text[6]);
+                row.createCell(7).setCellValue(text[7]);
+
+                if (rowNum[0] <= WIDTH_SAMPLE_ROWS) {
+                    for (int i = 0; i < text.length; i++) {
+                        widths[i] = Math.max(widths[i], text[i].length());
+                    }
+                }
+                rowNum[0]++;
+            });
+
+            for (int i = 0; i < COLUMNS.length; i++) {
+                sheet.setColumnWidth(i, (Math.min(widths[i], MAX_COLUMN_CHARS) + 2) * 256);
             }
 
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            workbook.write(bos);
-            return bos.toByteArray();
-
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating expense Excel: " + e.getMessage());
+            workbook.write(out);
+            out.flush();
+        } finally {
+            workbook.dispose(); // delete the temp files backing flushed rows
+            workbook.close();
         }
     }
-
-    
 }
@@ -3,18 +3,22 @@ package com.soumya.moneymanager.service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.soumya.moneymanager.dto.CursorPageDTO;
 import com.soumya.moneymanager.dto.ExpenseDTO;
-import com.soumya.moneymanager.dto.IncomeDTO;
 import com.soumya.moneymanager.entity.CategoryEntity;
 import com.soumya.moneymanager.entity.ExpenseEntity;
-import com.soumya.moneymanager.entity.IncomeEntity;
 import com.soumya.moneymanager.entity.ProfileEntity;
 import com.soumya.moneymanager.repository.CategoryRepo;
 import com.soumya.moneymanager.repository.ExpenseRepo;
+import com.soumya.moneymanager.utils.CursorUtil;
 
 import lombok.RequiredArgsConstructor;
 
@@ -26,6 +30,10 @@ public class ExpenseService {
   private final ExpenseRepo expenseRepo;
 
   private final ProfileService profileService;
+  private final MonthlyRollupService monthlyRollupService;
+  private final DataVersionService dataVersionService;
+  private final CategoryCacheService categoryCacheService;
+  private final LiveEventService liveEventService;
 
 
 
@@ -33,14 +41,14 @@ public class ExpenseService {
 
   // Retrieve expenses for a specific date range
   public List<ExpenseDTO> getExpensesForDateRange(LocalDate startDate, LocalDate endDate) {
-    ProfileEntity profile = profileService.getCurrentProfile();
+    Long profileId = profileService.getCurrentProfileId();
     List<ExpenseEntity> expenses;
 
     if (startDate != null && endDate != null) {
-        expenses = expenseRepo.findByProfileIdAndDateBetween(profile.getId(), startDate, endDate);
+        expenses = expenseRepo.findByProfileIdAndDateBetween(profileId, startDate, endDate);
     } else {
         // Return all expenses if no range specified
-        expenses = expenseRepo.findByProfileId(profile.getId());
+        expenses = expenseRepo.findByProfileId(profileId);
     }
     return expenses.stream().map(this::toDTO).toList();
   }
@@ -64,7 +72,8 @@ public class ExpenseService {
         .id(entity.getId())
         .name(entity.getName())
         .icon(entity.getIcon())
-        .categoryName(entity.getCategory()!=null?entity.getCategory().getName():null)
+        // The category is a lazy proxy; its id is known without loading it, the name comes from the cache
+        .categoryName(entity.getCategory()!=null?categoryCacheService.getName(entity.getProfile().getId(), entity.getCategory().getId()):null)
         .categoryId(entity.getCategory()!=null?entity.getCategory().getId():null)
         .amount(entity.getAmount())
         .date(entity.getDate())
@@ -74,26 +83,35 @@ public class ExpenseService {
   }
 
 
+  @Transactional
   public ExpenseDTO addExpense(ExpenseDTO dto)
   {
       ProfileEntity profile=profileService.getCurrentProfile();
       CategoryEntity category=categoryRepo.findById(dto.getCategoryId()).orElseThrow(() -> new RuntimeException("Category not found"));
       ExpenseEntity expense=toEntity(dto,profile,category);
       ExpenseEntity savedExpense=expenseRepo.save(expense);
-      return toDTO(savedExpense);
+      monthlyRollupService.recordAdded(profile.getId(), category.getId(), savedExpense.getDate(), MonthlyRollupService.TYPE_EXPENSE, savedExpense.getAmount());
+      dataVersionService.bump(profile.getId());
+      ExpenseDTO created = toDTO(savedExpense);
+      liveEventService.publish(profile.getId(), "expense.created", created);
+      return created;
 
   }
 
  // delete expense by id for current user
+ @Transactional
  public void deleteExpense(Long id)
  {
-   ProfileEntity  profile =profileService.getCurrentProfile();
+   Long profileId = profileService.getCurrentProfileId();
     ExpenseEntity expense=expenseRepo.findById(id).orElseThrow(() -> new RuntimeException("Expense not found"));
-    if(!expense.getProfile().getId().equals(profile.getId()))
+    if(!expense.getProfile().getId().equals(profileId))
     {
       throw new RuntimeException("Unauthorized to delete expense");
     }
     expenseRepo.deleteById(id);
+    monthlyRollupService.recordRemoved(profileId, expense.getCategory().getId(), expense.getDate(), MonthlyRollupService.TYPE_EXPENSE, expense.getAmount());
+    dataVersionService.bump(profileId);
+    liveEventService.publish(profileId, "expense.deleted", toDTO(expense));
  }
 
  // Get Latest 5 expenses for current user
@@ -101,8 +119,8 @@ public class ExpenseService {
 
    public List<ExpenseDTO> getLatest5ExpensesForCurrentUser()
    {
-     ProfileEntity profile=profileService.getCurrentProfile();
-     List<ExpenseEntity> expenses=expenseRepo.findTop5ByProfileIdOrderByDateDesc(profile.getId());
+     Long profileId = profileService.getCurrentProfileId();
+     List<ExpenseEntity> expenses=expenseRepo.findTop5ByProfileIdOrderByDateDesc(profileId);
      return expenses.stream().map(this::toDTO).toList();
    }
 
@@ -110,19 +128,61 @@ public class ExpenseService {
    // Get total expense for currenr user
    public BigDecimal getTotalExpenseForCurrentUser()
    {
-     ProfileEntity profile=profileService.getCurrentProfile();
-     BigDecimal totalExpense=expenseRepo.findTotalExpenseByProfileId(profile.getId());
+     Long profileId = profileService.getCurrentProfileId();
+     BigDecimal totalExpense=expenseRepo.findTotalExpenseByProfileId(profileId);
      return totalExpense!=null?totalExpense:BigDecimal.ZERO;
    }
 
+   // Dashboard aggregates: computed by the database instead of loading every row in the range
+
+   public BigDecimal getTotalExpenseForDateRange(Long profileId, LocalDate startDate, LocalDate endDate)
+   {
+     BigDecimal totalExpense = (startDate != null && endDate != null)
+         ? expenseRepo.findTotalExpenseByProfileIdAndDateBetween(profileId, startDate, endDate)
+         : expenseRepo.findTotalExpenseByProfileId(profileId);
+     return totalExpense!=null?totalExpense:BigDecimal.ZERO;
+   }
+
+   public List<ExpenseDTO> getLatest10ExpensesForDateRange(Long profileId, LocalDate startDate, LocalDate endDate)
+   {
+     List<ExpenseEntity> expenses = (startDate != null && endDate != null)
+         ? expenseRepo.findTop10ByProfileIdAndDateBetweenOrderByDateDescCreatedAtDesc(profileId, startDate, endDate)
+         : expenseRepo.findTop10ByProfileIdOrderByDateDescCreatedAtDesc(profileId);
+     return expenses.stream().map(this::toDTO).toList();
+   }
+
    // Filter expenses
    public List<ExpenseDTO> filterExpenses(LocalDate startDate, LocalDate endDate,String keyword,Sort sort)
    {
-     ProfileEntity profile=profileService.getCurrentProfile();
-     List<ExpenseEntity> expenses=expenseRepo.findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(profile.getId(), startDate, endDate, keyword,sort);
+     Long profileId = profileService.getCurrentProfileId();
+     List<ExpenseEntity> expenses=expenseRepo.findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(profileId, startDate, endDate, keyword,sort);
      return expenses.stream().map(this::toDTO).toList();
    }
 
+   // Keyset-paginated listing ordered by (date, id); memory per call is bounded by the page size
+   public CursorPageDTO<ExpenseDTO> getExpensesPage(LocalDate startDate, LocalDate endDate, String keyword, String cursor, Integer limit, boolean ascending)
+   {
+     Long profileId = profileService.getCurrentProfileId();
+     int pageSize = CursorUtil.pageSize(limit);
+     CursorUtil.Position position = cursor != null && !cursor.isBlank() ? CursorUtil.decode(cursor) : CursorUtil.start(ascending);
+     LocalDate from = startDate != null ? startDate : CursorUtil.MIN_DATE;
+     LocalDate to = endDate != null ? endDate : CursorUtil.MAX_DATE;
+     String name = keyword != null ? keyword : "";
+     Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+     List<ExpenseEntity> rows = ascending
+         ? expenseRepo.findPageAfter(profileId, from, to, name, position.date(), position.id(), pageable)
+         : expenseRepo.findPageBefore(profileId, from, to, name, position.date(), position.id(), pageable);
+
+     String nextCursor = null;
+     if (rows.size() > pageSize) {
+       rows = rows.subList(0, pageSize);
+       ExpenseEntity last = rows.get(pageSize - 1);
+       nextCursor = CursorUtil.encode(last.getDate(), last.getId());
+     }
+     return new CursorPageDTO<>(rows.stream().map(this::toDTO).toList(), nextCursor);
+   }
+
    // Notification
 
    public List<ExpenseDTO> getExpenseForUserOnDate(Long profileId,LocalDate date)
@@ -132,22 +192,29 @@ public class ExpenseService {
    }
    
    public List<ExpenseDTO> getAllExpenseForCurrentUser() {
-	    ProfileEntity profile = profileService.getCurrentProfile();
-	    List<ExpenseEntity> expense = expenseRepo.findByProfileId(profile.getId());
+	    Long profileId = profileService.getCurrentProfileId();
+	    List<ExpenseEntity> expense = expenseRepo.findByProfileId(profileId);
 	    return expense.stream().map(this::toDTO).toList();
 	}
+  @Transactional
   public ExpenseDTO updateExpense(Long id, ExpenseDTO expenseDTO) {
-    ProfileEntity profile = profileService.getCurrentProfile();
+    Long profileId = profileService.getCurrentProfileId();
     ExpenseEntity existingExpense = expenseRepo.findById(id)
         .orElseThrow(() -> new RuntimeException("Expense not found with id: " + id));
     
-    if (!existingExpense.getProfile().getId().equals(profile.getId())) {
+    if (!existingExpense.getProfile().getId().equals(profileId)) {
         throw new RuntimeException("Unauthorized to update expense");
     }
     
     CategoryEntity category = categoryRepo.findById(expenseDTO.getCategoryId())
         .orElseThrow(() -> new RuntimeException("Category not found with id: " + expenseDTO.getCategoryId()));
     
+    // Take the old values out of the monthly rollup before they are overwritten
+    monthlyRollupService.recordRemoved(profileId, existingExpense.getCategory().getId(), existingExpense.getDate(), MonthlyRollupService.TYPE_EXPENSE, existingExpense.getAmount());
+    
+    // Clients apply the update as a delta, so they get the values it replaces as well
+    ExpenseDTO previous = toDTO(existingExpense);
+
     existingExpense.setName(expenseDTO.getName());
     existingExpense.setAmount(expenseDTO.getAmount());
     existingExpense.setDate(expenseDTO.getDate());
@@ -155,15 +222,19 @@ public class ExpenseService {
     existingExpense.setIcon(expenseDTO.getIcon());
     
     ExpenseEntity updatedExpense = expenseRepo.save(existingExpense);
-    return toDTO(updatedExpense);
+    monthlyRollupService.recordAdded(profileId, category.getId(), updatedExpense.getDate(), MonthlyRollupService.TYPE_EXPENSE, updatedExpense.getAmount());
+    dataVersionService.bump(profileId);
+    ExpenseDTO updated = toDTO(updatedExpense);
+    liveEventService.publish(profileId, "expense.updated", Map.of("previous", previous, "current", updated));
+    return updated;
 }
 
 public ExpenseDTO getExpenseById(Long id) {
-    ProfileEntity profile = profileService.getCurrentProfile();
+    Long profileId = profileService.getCurrentProfileId();
     ExpenseEntity expense = expenseRepo.findById(id)
         .orElseThrow(() -> new RuntimeException("Expense not found with id: " + id));
     
-    if (!expense.getProfile().getId().equals(profile.getId())) {
+    if (!expense.getProfile().getId().equals(profileId)) {
         throw new RuntimeException("Unauthorized to access this expense");
     }
     
@@ -0,0 +1,344 @@
+package com.soumya.moneymanager.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.soumya.moneymanager.dto.ExportJobDTO;
+import com.soumya.moneymanager.entity.ExportJobEntity;
+import com.soumya.moneymanager.repository.ExportJobRepo;
+import com.soumya.moneymanager.utils.TaskExecutors;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs exports off the request thread and keeps the resulting files in a spool directory.
+ * A file is named after (profile, format, data version), so as long as the profile's data
+ * version is unchanged a repeated request is answered from disk without recomputing.
+ * Files are evicted by age and by total spool size.
+ *
+ * Job state is kept in tbl_export_jobs, so a job submitted through one instance can be polled
+ * through any other. For downloads to work behind a load balancer, spool-dir must be storage
+ * shared by all instances; a job whose instance stops heartbeating while it runs is reported
+ * as failed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportJobService {
+
+  public static final String STATUS_PENDING = "PENDING";
+  public static final String STATUS_RUNNING = "RUNNING";
+  public static final String STATUS_DONE = "DONE";
+  public static final String STATUS_FAILED = "FAILED";
+
+  // format -> file extension
+  private static final Map<String, String> FORMATS = Map.of(
+      "csv", "csv",
+      "pdf", "pdf",
+      "income-xlsx", "xlsx",
+      "expense-xlsx", "xlsx");
+
+  // Finished jobs are forgotten after this long; their files stay cached
+  private static final Duration JOB_RETENTION = Duration.ofHours(1);
+
+  private final ExportService exportService;
+  private final ExcelExportService excelExportService;
+  private final ProfileService profileService;
+  private final DataVersionService dataVersionService;
+  private final ExportJobRepo exportJobRepo;
+  private final JobCoordinatorService jobCoordinatorService;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${money.manager.export.pool-size:2}")
+  private int poolSize;
+
+  @Value("${money.manager.export.queue-capacity:20}")
+  private int queueCapacity;
+
+  @Value("${money.manager.export.spool-dir:${java.io.tmpdir}/moneymanager-exports}")
+  private String spoolDirSetting;
+
+  @Value("${money.manager.export.max-age-hours:24}")
+  private long maxAgeHours;
+
+  @Value("${money.manager.export.max-total-mb:512}")
+  private long maxTotalMb;
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  private Path spoolDir;
+  private ThreadPoolTaskExecutor exportExecutor;
+
+  // cache key -> job this instance is building that artifact with; its files are never evicted
+  private final Map<String, ExportJobEntity> inFlight = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  void init() throws IOException {
+    spoolDir = Files.createDirectories(Paths.get(spoolDirSetting));
+
+    // Small fixed pool with a bounded queue: when it is full new jobs are rejected instead of piling up.
+    // Owned here rather than exposed as a bean, so Boot's default task executor stays in place.
+    exportExecutor = TaskExecutors.bounded("export-", poolSize, queueCapacity, virtualThreads);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    exportExecutor.shutdown();
+  }
+
+  /**
+   * Start an export for the current user, or reuse the cached file for the current data version.
+   */
+  public ExportJobDTO submit(String format) {
+    String extension = FORMATS.get(format);
+    if (extension == null) {
+      throw new RuntimeException("Unsupported export format: " + format + ". Use one of " + FORMATS.keySet());
+    }
+    Long profileId = profileService.getCurrentProfileId();
+    long version = dataVersionService.getVersion(profileId);
+    String cacheKey = profileId + "-" + format + "-v" + version;
+    Path artifact = spoolDir.resolve(cacheKey + "." + extension);
+
+    ExportJobEntity job = ExportJobEntity.builder()
+        .id(UUID.randomUUID().toString())
+        .profileId(profileId)
+        .format(format)
+        .cacheKey(cacheKey)
+        .nodeId(jobCoordinatorService.getNodeId())
+        .build();
+
+    if (Files.exists(artifact)) {
+      touch(artifact);
+      job.setCached(true);
+      finish(job, STATUS_DONE, null);
+      return toDTO(job);
+    }
+
+    // Identical requests share one run, whichever instance it was submitted to
+    ExportJobEntity running = exportJobRepo.findFirstByCacheKeyAndStatusIn(cacheKey, List.of(STATUS_PENDING, STATUS_RUNNING))
+        .filter(existing -> jobCoordinatorService.isNodeLive(existing.getNodeId()))
+        .orElse(null);
+    if (running != null) {
+      return toDTO(running);
+    }
+    job.setStatus(STATUS_PENDING);
+    running = inFlight.putIfAbsent(cacheKey, job);
+    if (running != null) {
+      return toDTO(running);
+    }
+    exportJobRepo.save(job);
+    try {
+      exportExecutor.execute(() -> run(job, artifact));
+    } catch (RejectedExecutionException e) {
+      inFlight.remove(cacheKey, job);
+      exportJobRepo.deleteById(job.getId());
+      throw new RuntimeException("Export queue is full, please try again later");
+    }
+    return toDTO(job);
+  }
+
+  public ExportJobDTO getJob(String id) {
+    return toDTO(findOwnJob(id));
+  }
+
+  /**
+   * Finished artifact of a job owned by the current user.
+   */
+  public Path getArtifact(String id) {
+    ExportJobEntity job = findOwnJob(id);
+    Path artifact = artifactPath(job);
+    if (!STATUS_DONE.equals(job.getStatus()) || !Files.exists(artifact)) {
+      throw new RuntimeException("Export is not ready");
+    }
+    touch(artifact);
+    return artifact;
+  }
+
+  public String contentType(String id) {
+    return switch (findOwnJob(id).getFormat()) {
+      case "csv" -> "text/csv";
+      case "pdf" -> "application/pdf";
+      default -> "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    };
+  }
+
+  private void run(ExportJobEntity job, Path artifact) {
+    job.setStatus(STATUS_RUNNING);
+    exportJobRepo.save(job);
+    // Written under a temporary name and moved into place, so readers never see a partial file
+    Path tmp = spoolDir.resolve(job.getCacheKey() + ".tmp-" + job.getId());
+    try {
+      try (OutputStream out = Files.newOutputStream(tmp)) {
+        switch (job.getFormat()) {
+          case "csv" -> exportService.writeCsv(job.getProfileId(), out);
+          case "pdf" -> exportService.writePdf(job.getProfileId(), out);
+          case "income-xlsx" -> excelExportService.writeIncomeExcel(job.getProfileId(), out);
+          case "expense-xlsx" -> excelExportService.writeExpenseExcel(job.getProfileId(), out);
+          default -> throw new IllegalStateException("Unsupported export format: " + job.getFormat());
+        }
+      }
+      Files.move(tmp, artifact, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      deleteOlderVersions(job, artifact);
+      finish(job, STATUS_DONE, null);
+    } catch (Exception e) {
+      log.error("Export job {} failed for profile {}", job.getId(), job.getProfileId(), e);
+      deleteQuietly(tmp);
+      finish(job, STATUS_FAILED, e.getMessage());
+    } finally {
+      inFlight.remove(job.getCacheKey(), job);
+    }
+  }
+
+  private void finish(ExportJobEntity job, String status, String error) {
+    job.setStatus(status);
+    job.setError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+    job.setCompletedAt(LocalDateTime.now());
+    exportJobRepo.save(job);
+  }
+
+  /**
+   * Drop artifacts older than max-age, then the least recently used ones until the spool
+   * fits in max-total-mb. Also forgets finished jobs past their retention.
+   */
+  @Scheduled(fixedDelayString = "${money.manager.export.cleanup-interval-ms:600000}")
+  public void evictArtifacts() {
+    LocalDateTime forgetBefore = LocalDateTime.now().minus(JOB_RETENTION);
+    transactionTemplate.executeWithoutResult(status -> exportJobRepo.deleteCompletedBefore(forgetBefore));
+
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> dir = Files.newDirectoryStream(spoolDir)) {
+      for (Path file : dir) {
+        if (!isInFlight(file)) files.add(file);
+      }
+    } catch (IOException e) {
+      log.warn("Could not list export spool {}", spoolDir, e);
+      return;
+    }
+
+    Instant oldest = Instant.now().minus(Duration.ofHours(maxAgeHours));
+    long totalBytes = 0;
+    List<Path> kept = new ArrayList<>();
+    for (Path file : files) {
+      if (lastModified(file).isBefore(oldest)) {
+        deleteQuietly(file);
+      } else {
+        kept.add(file);
+        totalBytes += size(file);
+      }
+    }
+
+    long maxBytes = maxTotalMb * 1024 * 1024;
+    kept.sort(Comparator.comparing(ExportJobService::lastModified));
+    for (Path file : kept) {
+      if (totalBytes <= maxBytes) break;
+      totalBytes -= size(file);
+      deleteQuietly(file);
+    }
+  }
+
+  private ExportJobEntity findOwnJob(String id) {
+    ExportJobEntity job = exportJobRepo.findById(id)
+        .filter(found -> found.getProfileId().equals(profileService.getCurrentProfileId()))
+        .orElseThrow(() -> new RuntimeException("Export job not found: " + id));
+    // The instance building it went away; its spool file, if any, is only a partial .tmp
+    if (!STATUS_DONE.equals(job.getStatus()) && !STATUS_FAILED.equals(job.getStatus())
+        && !jobCoordinatorService.isNodeLive(job.getNodeId())) {
+      finish(job, STATUS_FAILED, "Export was interrupted, please try again");
+    }
+    return job;
+  }
+
+  private Path artifactPath(ExportJobEntity job) {
+    return spoolDir.resolve(job.getCacheKey() + "." + FORMATS.get(job.getFormat()));
+  }
+
+  // Artifacts built from an older data version of the same profile and format can never be served again
+  private void deleteOlderVersions(ExportJobEntity job, Path artifact) {
+    String prefix = job.getProfileId() + "-" + job.getFormat() + "-v";
+    try (DirectoryStream<Path> dir = Files.newDirectoryStream(spoolDir, prefix + "*")) {
+      for (Path file : dir) {
+        if (!file.equals(artifact) && !isInFlight(file)) deleteQuietly(file);
+      }
+    } catch (IOException e) {
+      log.warn("Could not clean old exports for profile {}", job.getProfileId(), e);
+    }
+  }
+
+  private boolean isInFlight(Path file) {
+    String name = file.getFileName().toString();
+    return inFlight.keySet().stream().anyMatch(key -> name.startsWith(key + "."));
+  }
+
+  private ExportJobDTO toDTO(ExportJobEntity job) {
+    Long size = STATUS_DONE.equals(job.getStatus()) ? size(artifactPath(job)) : null;
+    return ExportJobDTO.builder()
+        .id(job.getId())
+        .format(job.getFormat())
+        .status(job.getStatus())
+        .cached(job.isCached())
+        .sizeBytes(size)
+        .fileName("finance_export_" + job.getProfileId() + "." + FORMATS.get(job.getFormat()))
+        .error(job.getError())
+        .createdAt(job.getCreatedAt())
+        .completedAt(job.getCompletedAt())
+        .build();
+  }
+
+  private static void touch(Path file) {
+    try {
+      Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+    } catch (IOException ignored) {
+      // only affects eviction order
+    }
+  }
+
+  private static Instant lastModified(Path file) {
+    try {
+      return Files.getLastModifiedTime(file).toInstant();
+    } catch (IOException e) {
+      return Instant.EPOCH;
+    }
+  }
+
+  private static long size(Path file) {
+    try {
+      return Files.size(file);
+    } catch (IOException e) {
+      return 0L;
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("Could not delete export file {}", file, e);
+    }
+  }
+}
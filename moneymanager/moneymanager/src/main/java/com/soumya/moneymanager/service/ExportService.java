@@ -1,11 +1,18 @@
 package com.soumya.moneymanager.service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.lowagie.text.Document;
 import com.lowagie.text.DocumentException;
@@ -18,10 +25,7 @@ import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
 import com.opencsv.CSVWriter;
 
-import com.soumya.moneymanager.dto.ExpenseDTO;
-import com.soumya.moneymanager.dto.IncomeDTO;
-import com.soumya.moneymanager.entity.ExpenseEntity;
-import com.soumya.moneymanager.entity.IncomeEntity;
+import com.soumya.moneymanager.dto.ExportRowDTO;
 import com.soumya.moneymanager.repository.ExpenseRepo;
 import com.soumya.moneymanager.repository.IncomeRepo;
 
@@ -35,55 +39,44 @@ public class ExportService {
   private final ExpenseRepo expenseRepo;
 
   private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
-
-  public byte[] exportPdf(Long userId) {
-    List<IncomeEntity> incomes = incomeRepo.findByProfileId(userId);
-    List<ExpenseEntity> expenses = expenseRepo.findByProfileId(userId);
-
-    try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-      Document document = new Document();
-      PdfWriter.getInstance(document, out);
+  private static final DateTimeFormatter MONTH_FMT = DateTimeFormatter.ofPattern("MMM yyyy");
+  private static final int PDF_FLUSH_ROWS = 200;
+  private static final String[] COLUMNS = {"ID","Name","Category","Icon","Amount","Date","Created At","Updated At"};
+
+  /**
+   * Write the PDF export straight to the given stream. Rows are pulled through a streaming
+   * result set and the table is handed to the document every PDF_FLUSH_ROWS rows; with
+   * setComplete(false) the rendered rows are dropped from the table, so memory stays bounded.
+   * Each month ends with a subtotal row. The stream is flushed but not closed.
+   */
+  @Transactional(readOnly = true)
+  public void writePdf(Long userId, OutputStream out) {
+    Document document = new Document();
+    try {
+      PdfWriter writer = PdfWriter.getInstance(document, out);
+      writer.setCloseStream(false);
       document.open();
 
       Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
       Font cellFont = FontFactory.getFont(FontFactory.HELVETICA, 11);
+      Font subtotalFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11);
 
       // Incomes section
       document.add(new Paragraph("Income Report", headerFont));
       document.add(new Paragraph(" "));
-      PdfPTable incomeTable = new PdfPTable(8);
-      addHeaderRow(incomeTable, new String[]{"ID","Name","Category","Icon","Amount","Date","Created At","Updated At"}, cellFont);
-      for (IncomeEntity i : incomes) {
-        incomeTable.addCell(new Phrase(String.valueOf(i.getId()), cellFont));
-        incomeTable.addCell(new Phrase(nz(i.getName()), cellFont));
-        incomeTable.addCell(new Phrase(i.getCategory()!=null? nz(i.getCategory().getName()):"N/A", cellFont));
-        incomeTable.addCell(new Phrase(nz(i.getIcon()), cellFont));
-        incomeTable.addCell(new Phrase(i.getAmount()!=null? i.getAmount().toPlainString():"0.00", cellFont));
-        incomeTable.addCell(new Phrase(i.getDate()!=null? i.getDate().format(DATE_FMT):"N/A", cellFont));
-        incomeTable.addCell(new Phrase(i.getCreatedAt()!=null? i.getCreatedAt().format(DATE_FMT):"N/A", cellFont));
-        incomeTable.addCell(new Phrase(i.getUpdatedAt()!=null? i.getUpdatedAt().format(DATE_FMT):"N/A", cellFont));
+      try (Stream<ExportRowDTO> incomes = incomeRepo.streamExportRowsByProfileId(userId)) {
+        writePdfTable(document, incomes, cellFont, subtotalFont);
       }
-      document.add(incomeTable);
 
       document.add(new Paragraph(" "));
       document.add(new Paragraph("Expense Report", headerFont));
       document.add(new Paragraph(" "));
-      PdfPTable expenseTable = new PdfPTable(8);
-      addHeaderRow(expenseTable, new String[]{"ID","Name","Category","Icon","Amount","Date","Created At","Updated At"}, cellFont);
-      for (ExpenseEntity e : expenses) {
-        expenseTable.addCell(new Phrase(String.valueOf(e.getId()), cellFont));
-        expenseTable.addCell(new Phrase(nz(e.getName()), cellFont));
-        expenseTable.addCell(new Phrase(e.getCategory()!=null? nz(e.getCategory().getName()):"N/A", cellFont));
-        expenseTable.addCell(new Phrase(nz(e.getIcon()), cellFont));
-        expenseTable.addCell(new Phrase(e.getAmount()!=null? e.getAmount().toPlainString():"0.00", cellFont));
-        expenseTable.addCell(new Phrase(e.getDate()!=null? e.getDate().format(DATE_FMT):"N/A", cellFont));
-        expenseTable.addCell(new Phrase(e.getCreatedAt()!=null? e.getCreatedAt().format(DATE_FMT):"N/A", cellFont));
-        expenseTable.addCell(new Phrase(e.getUpdatedAt()!=null? e.getUpdatedAt().format(DATE_FMT):"N/A", cellFont));
+      try (Stream<ExportRowDTO> expenses = expenseRepo.streamExportRowsByProfileId(userId)) {
+        writePdfTable(document, expenses, cellFont, subtotalFont);
       }
-      document.add(expenseTable);
 
       document.close();
-      return out.toByteArray();
+      out.flush();
     } catch (DocumentException de) {
       throw new RuntimeException("Error generating PDF: " + de.getMessage(), de);
     } catch (Exception ex) {
@@ -91,52 +84,109 @@ public class ExportService {
     }
   }
 
-  public byte[] exportCsv(Long userId) {
-    List<IncomeEntity> incomes = incomeRepo.findByProfileId(userId);
-    List<ExpenseEntity> expenses = expenseRepo.findByProfileId(userId);
+  private void writePdfTable(Document document, Stream<ExportRowDTO> rows, Font cellFont, Font subtotalFont) throws DocumentException {
+    PdfPTable table = new PdfPTable(8);
+    table.setWidthPercentage(100);
+    table.setHeaderRows(1); // repeated on every page
+    table.setComplete(false);
+    addHeaderRow(table, COLUMNS, cellFont);
+
+    // Running state for the month currently being written
+    YearMonth month = null;
+    BigDecimal monthTotal = BigDecimal.ZERO;
+    BigDecimal grandTotal = BigDecimal.ZERO;
+    boolean hasRows = false;
+    int pending = 0;
+
+    // Rows arrive ordered by date, so a month is complete as soon as the next one starts
+    Iterator<ExportRowDTO> it = rows.iterator();
+    while (it.hasNext()) {
+      ExportRowDTO row = it.next();
+      YearMonth rowMonth = row.getDate() != null ? YearMonth.from(row.getDate()) : null;
+      if (hasRows && !Objects.equals(rowMonth, month)) {
+        addSubtotalRow(table, month, monthTotal, subtotalFont);
+        monthTotal = BigDecimal.ZERO;
+      }
+      month = rowMonth;
+      hasRows = true;
 
-    try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-         java.io.OutputStreamWriter osw = new java.io.OutputStreamWriter(out, StandardCharsets.UTF_8);
-         CSVWriter writer = new CSVWriter(osw)) {
+      for (String value : toCsvRow(row)) {
+        table.addCell(new Phrase(value, cellFont));
+      }
+      BigDecimal amount = row.getAmount() != null ? row.getAmount() : BigDecimal.ZERO;
+      monthTotal = monthTotal.add(amount);
+      grandTotal = grandTotal.add(amount);
+
+      if (++pending >= PDF_FLUSH_ROWS) {
+        document.add(table);
+        pending = 0;
+      }
+    }
+
+    if (hasRows) {
+      addSubtotalRow(table, month, monthTotal, subtotalFont);
+    }
+    addTotalRow(table, "Total", grandTotal, subtotalFont);
+    table.setComplete(true);
+    document.add(table);
+  }
+
+  private static void addSubtotalRow(PdfPTable table, YearMonth month, BigDecimal total, Font font) {
+    addTotalRow(table, "Subtotal " + (month != null ? month.format(MONTH_FMT) : "N/A"), total, font);
+  }
+
+  private static void addTotalRow(PdfPTable table, String label, BigDecimal total, Font font) {
+    PdfPCell labelCell = new PdfPCell(new Phrase(label, font));
+    labelCell.setColspan(4);
+    table.addCell(labelCell);
+    table.addCell(new PdfPCell(new Phrase(total.toPlainString(), font)));
+    PdfPCell filler = new PdfPCell(new Phrase("", font));
+    filler.setColspan(3);
+    table.addCell(filler);
+  }
+
+  /**
+   * Write the CSV export straight to the given stream. Rows are read through a streaming
+   * result set and written one at a time, so memory use does not grow with the row count.
+   * The stream is flushed but not closed.
+   */
+  @Transactional(readOnly = true)
+  public void writeCsv(Long userId, OutputStream out) {
+    try {
+      CSVWriter writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
 
       writer.writeNext(new String[]{"Income Report"});
-      writer.writeNext(new String[]{"ID","Name","Category","Icon","Amount","Date","Created At","Updated At"});
-      for (IncomeEntity i : incomes) {
-        writer.writeNext(new String[] {
-          String.valueOf(i.getId()),
-          nz(i.getName()),
-          i.getCategory()!=null? nz(i.getCategory().getName()):"N/A",
-          nz(i.getIcon()),
-          i.getAmount()!=null? i.getAmount().toPlainString():"0.00",
-          i.getDate()!=null? i.getDate().format(DATE_FMT):"N/A",
-          i.getCreatedAt()!=null? i.getCreatedAt().format(DATE_FMT):"N/A",
-          i.getUpdatedAt()!=null? i.getUpdatedAt().format(DATE_FMT):"N/A"
-        });
+      writer.writeNext(COLUMNS);
+      try (Stream<ExportRowDTO> incomes = incomeRepo.streamExportRowsByProfileId(userId)) {
+        incomes.forEach(row -> writer.writeNext(toCsvRow(row)));
       }
 
       writer.writeNext(new String[]{""});
       writer.writeNext(new String[]{"Expense Report"});
-      writer.writeNext(new String[]{"ID","Name","Category","Icon","Amount","Date","Created At","Updated At"});
-      for (ExpenseEntity e : expenses) {
-        writer.writeNext(new String[] {
-          String.valueOf(e.getId()),
-          nz(e.getName()),
-          e.getCategory()!=null? nz(e.getCategory().getName()):"N/A",
-          nz(e.getIcon()),
-          e.getAmount()!=null? e.getAmount().toPlainString():"0.00",
-          e.getDate()!=null? e.getDate().format(DATE_FMT):"N/A",
-          e.getCreatedAt()!=null? e.getCreatedAt().format(DATE_FMT):"N/A",
-          e.getUpdatedAt()!=null? e.getUpdatedAt().format(DATE_FMT):"N/A"
-        });
+      writer.writeNext(COLUMNS);
+      try (Stream<ExportRowDTO> expenses = expenseRepo.streamExportRowsByProfileId(userId)) {
+        expenses.forEach(row -> writer.writeNext(toCsvRow(row)));
       }
 
       writer.flush();
-      return out.toByteArray();
     } catch (Exception e) {
       throw new RuntimeException("Error generating CSV: " + e.getMessage(), e);
     }
   }
 
+  private static String[] toCsvRow(ExportRowDTO row) {
+    return new String[] {
+      String.valueOf(row.getId()),
+      nz(row.getName()),
+      row.getCategoryName()!=null? row.getCategoryName():"N/A",
+      nz(row.getIcon()),
+      row.getAmount()!=null? row.getAmount().toPlainString():"0.00",
+      row.getDate()!=null? row.getDate().format(DATE_FMT):"N/A",
+      row.getCreatedAt()!=null? row.getCreatedAt().format(DATE_FMT):"N/A",
+      row.getUpdatedAt()!=null? row.getUpdatedAt().format(DATE_FMT):"N/A"
+    };
+  }
+
   private static void addHeaderRow(PdfPTable table, String[] headers, Font font) {
     for (String h : headers) {
       PdfPCell cell = new PdfPCell(new Phrase(h, font));
@@ -3,16 +3,22 @@ package com.soumya.moneymanager.service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.soumya.moneymanager.dto.CursorPageDTO;
 import com.soumya.moneymanager.dto.IncomeDTO;
 import com.soumya.moneymanager.entity.CategoryEntity;
 import com.soumya.moneymanager.entity.IncomeEntity;
 import com.soumya.moneymanager.entity.ProfileEntity;
 import com.soumya.moneymanager.repository.CategoryRepo;
 import com.soumya.moneymanager.repository.IncomeRepo;
+import com.soumya.moneymanager.utils.CursorUtil;
 
 import lombok.RequiredArgsConstructor;
 
@@ -22,6 +28,10 @@ public class IncomeService {
 
   private final CategoryRepo categoryRepo;
   private final ProfileService profileService;
+  private final MonthlyRollupService monthlyRollupService;
+  private final DataVersionService dataVersionService;
+  private final CategoryCacheService categoryCacheService;
+  private final LiveEventService liveEventService;
   private final IncomeRepo incomeRepo;
 
 
@@ -29,15 +39,15 @@ public class IncomeService {
 
   // Retrieve incomes for a specific date range (or all time if null)
   public List<IncomeDTO> getIncomesForDateRange(LocalDate startDate, LocalDate endDate) {
-    ProfileEntity profile = profileService.getCurrentProfile();
+    Long profileId = profileService.getCurrentProfileId();
     List<IncomeEntity> incomes;
     
     if (startDate != null && endDate != null) {
-        incomes = incomeRepo.findByProfileIdAndDateBetween(profile.getId(), startDate, endDate);
+        incomes = incomeRepo.findByProfileIdAndDateBetween(profileId, startDate, endDate);
     } else {
         // If no dates provided, return ALL incomes (or default to a wide range if preferred, but user asked for history)
         // For now, let's return all incomes to ensure history is visible by default if no filter is applied
-        incomes = incomeRepo.findByProfileId(profile.getId());
+        incomes = incomeRepo.findByProfileId(profileId);
     }
     return incomes.stream().map(this::toDTO).toList();
   }
@@ -62,7 +72,8 @@ public class IncomeService {
         .id(entity.getId())
         .name(entity.getName())
         .icon(entity.getIcon())
-        .categoryName(entity.getCategory()!=null?entity.getCategory().getName():null)
+        // The category is a lazy proxy; its id is known without loading it, the name comes from the cache
+        .categoryName(entity.getCategory()!=null?categoryCacheService.getName(entity.getProfile().getId(), entity.getCategory().getId()):null)
         .categoryId(entity.getCategory()!=null?entity.getCategory().getId():null)
         .amount(entity.getAmount())
         .date(entity.getDate())
@@ -71,25 +82,34 @@ public class IncomeService {
         .build();
   }
 
+  @Transactional
   public IncomeDTO addExpense(IncomeDTO dto)
   {
       ProfileEntity profile=profileService.getCurrentProfile();
       CategoryEntity category=categoryRepo.findById(dto.getCategoryId()).orElseThrow(() -> new RuntimeException("Category not found"));
       IncomeEntity expense=toEntity(dto,profile,category);
       IncomeEntity savedExpense=incomeRepo.save(expense);
-      return toDTO(savedExpense);
+      monthlyRollupService.recordAdded(profile.getId(), category.getId(), savedExpense.getDate(), MonthlyRollupService.TYPE_INCOME, savedExpense.getAmount());
+      dataVersionService.bump(profile.getId());
+      IncomeDTO created = toDTO(savedExpense);
+      liveEventService.publish(profile.getId(), "income.created", created);
+      return created;
 
   }
 
+   @Transactional
    public void deleteIncome(Long id)
  {
-   ProfileEntity  profile =profileService.getCurrentProfile();
+   Long profileId = profileService.getCurrentProfileId();
     IncomeEntity income=incomeRepo.findById(id).orElseThrow(() -> new RuntimeException("Income not found"));
-    if(!income.getProfile().getId().equals(profile.getId()))
+    if(!income.getProfile().getId().equals(profileId))
     {
       throw new RuntimeException("Unauthorized to delete income");
     }
     incomeRepo.deleteById(id);
+    monthlyRollupService.recordRemoved(profileId, income.getCategory().getId(), income.getDate(), MonthlyRollupService.TYPE_INCOME, income.getAmount());
+    dataVersionService.bump(profileId);
+    liveEventService.publish(profileId, "income.deleted", toDTO(income));
  }
   
 
@@ -97,8 +117,8 @@ public class IncomeService {
 
    public List<IncomeDTO> getLatest5IncomesForCurrentUser()
    {
-     ProfileEntity profile=profileService.getCurrentProfile();
-     List<IncomeEntity> income=incomeRepo.findTop5ByProfileIdOrderByDateDesc(profile.getId());
+     Long profileId = profileService.getCurrentProfileId();
+     List<IncomeEntity> income=incomeRepo.findTop5ByProfileIdOrderByDateDesc(profileId);
      return income.stream().map(this::toDTO).toList();
    }
 
@@ -106,38 +126,86 @@ public class IncomeService {
    // Get total income for currenr user
    public BigDecimal getTotalIncomeForCurrentUser()
    {
-     ProfileEntity profile=profileService.getCurrentProfile();
-     BigDecimal totalIncome=incomeRepo.findTotalIncomeByProfileId(profile.getId());
+     Long profileId = profileService.getCurrentProfileId();
+     BigDecimal totalIncome=incomeRepo.findTotalIncomeByProfileId(profileId);
      return totalIncome!=null?totalIncome:BigDecimal.ZERO;
    }
 
+   // Dashboard aggregates: computed by the database instead of loading every row in the range
+
+   public BigDecimal getTotalIncomeForDateRange(Long profileId, LocalDate startDate, LocalDate endDate)
+   {
+     BigDecimal totalIncome = (startDate != null && endDate != null)
+         ? incomeRepo.findTotalIncomeByProfileIdAndDateBetween(profileId, startDate, endDate)
+         : incomeRepo.findTotalIncomeByProfileId(profileId);
+     return totalIncome!=null?totalIncome:BigDecimal.ZERO;
+   }
+
+   public List<IncomeDTO> getLatest10IncomesForDateRange(Long profileId, LocalDate startDate, LocalDate endDate)
+   {
+     List<IncomeEntity> incomes = (startDate != null && endDate != null)
+         ? incomeRepo.findTop10ByProfileIdAndDateBetweenOrderByDateDescCreatedAtDesc(profileId, startDate, endDate)
+         : incomeRepo.findTop10ByProfileIdOrderByDateDescCreatedAtDesc(profileId);
+     return incomes.stream().map(this::toDTO).toList();
+   }
    
    // Filter income
    public List<IncomeDTO> filterIncome(LocalDate startDate, LocalDate endDate,String keyword,Sort sort)
    {
-     ProfileEntity profile=profileService.getCurrentProfile();
-     List<IncomeEntity> incomes=incomeRepo.findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(profile.getId(), startDate, endDate, keyword,sort);
+     Long profileId = profileService.getCurrentProfileId();
+     List<IncomeEntity> incomes=incomeRepo.findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(profileId, startDate, endDate, keyword,sort);
      return incomes.stream().map(this::toDTO).toList();
    }
    
+   // Keyset-paginated listing ordered by (date, id); memory per call is bounded by the page size
+   public CursorPageDTO<IncomeDTO> getIncomesPage(LocalDate startDate, LocalDate endDate, String keyword, String cursor, Integer limit, boolean ascending)
+   {
+     Long profileId = profileService.getCurrentProfileId();
+     int pageSize = CursorUtil.pageSize(limit);
+     CursorUtil.Position position = cursor != null && !cursor.isBlank() ? CursorUtil.decode(cursor) : CursorUtil.start(ascending);
+     LocalDate from = startDate != null ? startDate : CursorUtil.MIN_DATE;
+     LocalDate to = endDate != null ? endDate : CursorUtil.MAX_DATE;
+     String name = keyword != null ? keyword : "";
+     Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+     List<IncomeEntity> rows = ascending
+         ? incomeRepo.findPageAfter(profileId, from, to, name, position.date(), position.id(), pageable)
+         : incomeRepo.findPageBefore(profileId, from, to, name, position.date(), position.id(), pageable);
+
+     String nextCursor = null;
+     if (rows.size() > pageSize) {
+       rows = rows.subList(0, pageSize);
+       IncomeEntity last = rows.get(pageSize - 1);
+       nextCursor = CursorUtil.encode(last.getDate(), last.getId());
+     }
+     return new CursorPageDTO<>(rows.stream().map(this::toDTO).toList(), nextCursor);
+   }
+
    public List<IncomeDTO> getAllIncomesForCurrentUser() {
-	    ProfileEntity profile = profileService.getCurrentProfile();
-	    List<IncomeEntity> incomes = incomeRepo.findByProfileId(profile.getId());
+	    Long profileId = profileService.getCurrentProfileId();
+	    List<IncomeEntity> incomes = incomeRepo.findByProfileId(profileId);
 	    return incomes.stream().map(this::toDTO).toList();
 	}
 
+  @Transactional
   public IncomeDTO updateIncome(Long id, IncomeDTO incomeDTO) {
-    ProfileEntity profile = profileService.getCurrentProfile();
+    Long profileId = profileService.getCurrentProfileId();
     IncomeEntity existingIncome = incomeRepo.findById(id)
         .orElseThrow(() -> new RuntimeException("Income not found with id: " + id));
     
-    if (!existingIncome.getProfile().getId().equals(profile.getId())) {
+    if (!existingIncome.getProfile().getId().equals(profileId)) {
         throw new RuntimeException("Unauthorized to update income");
     }
     
     CategoryEntity category = categoryRepo.findById(incomeDTO.getCategoryId())
         .orElseThrow(() -> new RuntimeException("Category not found with id: " + incomeDTO.getCategoryId()));
     
+    // Take the old values out of the monthly rollup before they are overwritten
+    monthlyRollupService.recordRemoved(profileId, existingIncome.getCategory().getId(), existingIncome.getDate(), MonthlyRollupService.TYPE_INCOME, existingIncome.getAmount());
+    
+    // Clients apply the update as a delta, so they get the values it replaces as well
+    IncomeDTO previous = toDTO(existingIncome);
+
     existingIncome.setName(incomeDTO.getName());
     existingIncome.setAmount(incomeDTO.getAmount());
     existingIncome.setDate(incomeDTO.getDate());
@@ -145,15 +213,19 @@ public class IncomeService {
     existingIncome.setIcon(incomeDTO.getIcon());
     
     IncomeEntity updatedIncome = incomeRepo.save(existingIncome);
-    return toDTO(updatedIncome);
+    monthlyRollupService.recordAdded(profileId, category.getId(), updatedIncome.getDate(), MonthlyRollupService.TYPE_INCOME, updatedIncome.getAmount());
+    dataVersionService.bump(profileId);
+    IncomeDTO updated = toDTO(updatedIncome);
+    liveEventService.publish(profileId, "income.updated", Map.of("previous", previous, "current", updated));
+    return updated;
 }
 
 public IncomeDTO getIncomeById(Long id) {
-    ProfileEntity profile = profileService.getCurrentProfile();
+    Long profileId = profileService.getCurrentProfileId();
     IncomeEntity income = incomeRepo.findById(id)
         .orElseThrow(() -> new RuntimeException("Income not found with id: " + id));
     
-    if (!income.getProfile().getId().equals(profile.getId())) {
+    if (!income.getProfile().getId().equals(profileId)) {
         throw new RuntimeException("Unauthorized to access this income");
     }
     
@@ -0,0 +1,270 @@
+package com.soumya.moneymanager.service;
+
+import java.net.InetAddress;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.soumya.moneymanager.entity.JobRunEntity;
+import com.soumya.moneymanager.entity.JobShardEntity;
+import com.soumya.moneymanager.repository.JobRunRepo;
+import com.soumya.moneymanager.repository.JobShardRepo;
+import com.soumya.moneymanager.repository.ProfileRepo;
+import com.soumya.moneymanager.repository.SchedulerNodeRepo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Splits scheduled jobs across application instances. Every instance heartbeats into
+ * tbl_scheduler_nodes. The first instance to start a run inserts its tbl_job_runs row and
+ * cuts the profile-id space into shards (a few per live node); all instances then claim
+ * shards with a conditional update until none are left. A shard whose lease ran out, or
+ * whose owner stopped heartbeating, can be claimed by anyone, which is how the work of a
+ * node that disappears is rebalanced onto the others. Each claim gets its own token, which
+ * progress and completion must match; a claim that was superseded, whether by another node
+ * or by another thread of this one, can no longer record anything.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobCoordinatorService {
+
+  public static final String STATUS_PENDING = "PENDING";
+  public static final String STATUS_RUNNING = "RUNNING";
+  public static final String STATUS_COMPLETED = "COMPLETED";
+
+  // Run date under which one-time jobs (runOnce) are recorded
+  public static final LocalDate ONE_TIME_RUN_DATE = LocalDate.EPOCH;
+
+  private static final int SHARDS_PER_NODE = 2;
+
+  private final SchedulerNodeRepo schedulerNodeRepo;
+  private final JobRunRepo jobRunRepo;
+  private final JobShardRepo jobShardRepo;
+  private final ProfileRepo profileRepo;
+  private final TransactionTemplate transactionTemplate;
+
+  // A node is live while its last heartbeat is newer than this
+  @Value("${money.manager.scheduler.node-timeout-seconds:30}")
+  private long nodeTimeoutSeconds;
+
+  @Value("${money.manager.scheduler.lease-seconds:120}")
+  private long leaseSeconds;
+
+  private String nodeId;
+
+  @PostConstruct
+  void register() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      host = "unknown";
+    }
+    nodeId = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    heartbeat();
+    log.info("Scheduler node {} registered", nodeId);
+  }
+
+  /**
+   * On shutdown, hand unfinished shards back right away instead of waiting for the lease.
+   */
+  @PreDestroy
+  void deregister() {
+    transactionTemplate.executeWithoutResult(status -> {
+      jobShardRepo.releaseByNode(nodeId);
+      schedulerNodeRepo.deleteById(nodeId);
+    });
+  }
+
+  @Scheduled(fixedDelayString = "${money.manager.scheduler.heartbeat-ms:10000}")
+  public void heartbeat() {
+    transactionTemplate.executeWithoutResult(status -> {
+      LocalDateTime now = LocalDateTime.now();
+      schedulerNodeRepo.heartbeat(nodeId, now);
+      schedulerNodeRepo.deleteByLastHeartbeatBefore(now.minusDays(1));
+    });
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * Whether the given node is still sending heartbeats.
+   */
+  public boolean isNodeLive(String node) {
+    return node != null && schedulerNodeRepo.existsByNodeIdAndLastHeartbeatAfter(node, LocalDateTime.now().minusSeconds(nodeTimeoutSeconds));
+  }
+
+  /**
+   * Create the run and its shards unless another node already did. The run row's unique
+   * key serialises concurrent callers: the loser waits for the winner's commit, then sees
+   * a duplicate key and uses the shards the winner created.
+   */
+  public void prepareRun(String jobName, LocalDate runDate) {
+    if (jobRunRepo.findByJobNameAndRunDate(jobName, runDate).isPresent()) return;
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        long maxProfileId = profileRepo.findMaxId();
+        jobRunRepo.saveAndFlush(JobRunEntity.builder()
+            .jobName(jobName)
+            .runDate(runDate)
+            .status(STATUS_RUNNING)
+            .lastProfileId(maxProfileId)
+            .processed(0)
+            .build());
+        jobShardRepo.saveAll(split(jobName, runDate, maxProfileId));
+      });
+    } catch (DataIntegrityViolationException e) {
+      log.info("Job {} for {} already started by another node", jobName, runDate);
+    }
+  }
+
+  /**
+   * Claim the next unfinished shard of the run for this node, or null if none is available.
+   * The returned shard carries the claim's token.
+   */
+  public JobShardEntity claimNext(String jobName, LocalDate runDate) {
+    for (JobShardEntity shard : jobShardRepo.findByJobNameAndRunDateAndStatusNotOrderByShardIndex(jobName, runDate, STATUS_COMPLETED)) {
+      String token = UUID.randomUUID().toString();
+      JobShardEntity claimed = transactionTemplate.execute(status -> {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jobShardRepo.claim(shard.getId(), nodeId, token, now, now.minusSeconds(nodeTimeoutSeconds), now.plusSeconds(leaseSeconds));
+        return updated == 1 ? jobShardRepo.findById(shard.getId()).orElse(null) : null;
+      });
+      if (claimed != null) {
+        return claimed;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Record a processed chunk and renew the lease. Must run in the transaction that does the
+   * chunk's work; false means another node took the shard over and that work must roll back.
+   */
+  @Transactional
+  public boolean recordProgress(JobShardEntity shard, Long lastProfileId, int count) {
+    int updated = jobShardRepo.recordProgress(shard.getId(), shard.getClaimToken(), lastProfileId, count, LocalDateTime.now().plusSeconds(leaseSeconds));
+    return updated == 1;
+  }
+
+  /**
+   * Mark the shard done; false if the claim was superseded, in which case the new holder finishes it.
+   */
+  @Transactional
+  public boolean completeShard(JobShardEntity shard) {
+    return jobShardRepo.complete(shard.getId(), shard.getClaimToken()) == 1;
+  }
+
+  /**
+   * Mark the run completed once every shard is done; any node may be the one to notice.
+   */
+  @Transactional
+  public void finishRunIfDone(String jobName, LocalDate runDate) {
+    if (jobShardRepo.countByJobNameAndRunDateAndStatusNot(jobName, runDate, STATUS_COMPLETED) > 0) return;
+    jobRunRepo.findByJobNameAndRunDate(jobName, runDate).ifPresent(run -> {
+      if (STATUS_COMPLETED.equals(run.getStatus())) return;
+      run.setStatus(STATUS_COMPLETED);
+      run.setProcessed((int) jobShardRepo.sumProcessed(jobName, runDate));
+      jobRunRepo.save(run);
+      log.info("Job {} for {} completed: {} profiles", jobName, runDate, run.getProcessed());
+    });
+  }
+
+  /**
+   * Run a one-time task, such as a data backfill, on a single instance. The task runs in the
+   * transaction that inserts its tbl_job_runs row: instances starting at the same time block
+   * on the unique key and then skip it, and a task that fails rolls back together with the row
+   * so the next startup tries again. Returns false if the task did not run on this node.
+   */
+  public boolean runOnce(String jobName, IntSupplier task) {
+    if (jobRunRepo.findByJobNameAndRunDate(jobName, ONE_TIME_RUN_DATE).isPresent()) return false;
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        JobRunEntity run = jobRunRepo.saveAndFlush(JobRunEntity.builder()
+            .jobName(jobName)
+            .runDate(ONE_TIME_RUN_DATE)
+            .status(STATUS_COMPLETED)
+            .lastProfileId(0L)
+            .processed(0)
+            .build());
+        run.setProcessed(task.getAsInt());
+      });
+      return true;
+    } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+      log.info("One-time job {} was run by another node", jobName);
+      return false;
+    }
+  }
+
+  /**
+   * Run a one-time task that manages its own transactions and is safe to repeat, such as a
+   * per-profile rebuild. Nothing is held open while it runs; the tbl_job_runs row is inserted
+   * only after it succeeded, so a task that fails or is cut short by a shutdown runs again on
+   * the next startup. Instances starting together may both run it. Returns false if it had
+   * already been recorded as done.
+   */
+  public boolean runOnceThenRecord(String jobName, IntSupplier task) {
+    if (jobRunRepo.findByJobNameAndRunDate(jobName, ONE_TIME_RUN_DATE).isPresent()) return false;
+    int processed = task.getAsInt();
+    try {
+      transactionTemplate.executeWithoutResult(status -> jobRunRepo.saveAndFlush(JobRunEntity.builder()
+          .jobName(jobName)
+          .runDate(ONE_TIME_RUN_DATE)
+          .status(STATUS_COMPLETED)
+          .lastProfileId(0L)
+          .processed(processed)
+          .build()));
+    } catch (DataIntegrityViolationException e) {
+      log.info("One-time job {} was also completed by another node", jobName);
+    }
+    return true;
+  }
+
+  /**
+   * Runs of today and yesterday (a run may pass midnight) that have not completed.
+   */
+  public List<JobRunEntity> findUnfinishedRuns() {
+    return jobRunRepo.findByStatusAndRunDateGreaterThanEqual(STATUS_RUNNING, LocalDate.now().minusDays(1));
+  }
+
+  private List<JobShardEntity> split(String jobName, LocalDate runDate, long maxProfileId) {
+    long liveNodes = Math.max(1, schedulerNodeRepo.countByLastHeartbeatAfter(LocalDateTime.now().minusSeconds(nodeTimeoutSeconds)));
+    int shardCount = (int) Math.min(liveNodes * SHARDS_PER_NODE, Math.max(1, maxProfileId));
+    long width = Math.max(1, (maxProfileId + shardCount - 1) / shardCount);
+
+    List<JobShardEntity> shards = new ArrayList<>();
+    for (int i = 0; i < shardCount; i++) {
+      long start = i * width;
+      // The last shard is open-ended, so profiles registered after the split are included
+      long end = i == shardCount - 1 ? Long.MAX_VALUE : (i + 1) * width;
+      shards.add(JobShardEntity.builder()
+          .jobName(jobName)
+          .runDate(runDate)
+          .shardIndex(i)
+          .rangeStart(start)
+          .rangeEnd(end)
+          .lastProfileId(start)
+          .processed(0)
+          .status(STATUS_PENDING)
+          .build());
+    }
+    return shards;
+  }
+}
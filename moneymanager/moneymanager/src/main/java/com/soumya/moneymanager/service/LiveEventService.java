@@ -0,0 +1,160 @@
+package com.soumya.moneymanager.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.soumya.moneymanager.dto.LiveEventDTO;
+import com.soumya.moneymanager.utils.TaskExecutors;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process event bus behind the server-sent events stream. Services publish a change inside
+ * their transaction; once it commits, the event is handed to a small fan-out pool that writes
+ * it to the recipient's open emitters. Connections are async requests, so an idle client holds
+ * no thread. Events only reach clients connected to this instance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveEventService {
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  @Value("${money.manager.events.timeout-ms:1800000}")
+  private long timeoutMs;
+
+  @Value("${money.manager.events.max-per-profile:5}")
+  private int maxPerProfile;
+
+  @Value("${money.manager.events.fanout-threads:2}")
+  private int fanoutThreads;
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  private final Map<Long, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+  private final AtomicInteger connections = new AtomicInteger();
+  private ThreadPoolTaskExecutor fanoutExecutor;
+
+  @PostConstruct
+  void init() {
+    fanoutExecutor = TaskExecutors.bounded("sse-", fanoutThreads, 10_000, virtualThreads);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    emitters.values().forEach(set -> set.forEach(SseEmitter::complete));
+    fanoutExecutor.shutdown();
+  }
+
+  /**
+   * Open a stream for the profile. Clients reconnect on timeout (EventSource does so itself).
+   */
+  public SseEmitter subscribe(Long profileId) {
+    SseEmitter emitter = new SseEmitter(timeoutMs);
+    boolean[] added = {false};
+    // compute() keeps registration atomic with unregister dropping an emptied set
+    emitters.compute(profileId, (id, set) -> {
+      if (set == null) set = ConcurrentHashMap.newKeySet();
+      if (set.size() < maxPerProfile) added[0] = set.add(emitter);
+      return set.isEmpty() ? null : set;
+    });
+    if (!added[0]) {
+      throw new RuntimeException("Too many open event streams");
+    }
+    connections.incrementAndGet();
+    Runnable remove = () -> unregister(profileId, emitter);
+    emitter.onCompletion(remove);
+    emitter.onTimeout(remove);
+    emitter.onError(e -> remove.run());
+    try {
+      emitter.send(SseEmitter.event().name("ready").data("ok"));
+    } catch (IOException e) {
+      remove.run();
+    }
+    return emitter;
+  }
+
+  /**
+   * Publish a change for one profile, or for everyone when profileId is null. Delivered only if
+   * the surrounding transaction commits.
+   */
+  public void publish(Long profileId, String type, Object data) {
+    eventPublisher.publishEvent(new LiveEventDTO(profileId, type, data));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEvent(LiveEventDTO event) {
+    if (connections.get() == 0) return;
+    try {
+      fanoutExecutor.execute(() -> deliver(event));
+    } catch (RejectedExecutionException e) {
+      log.warn("Dropped live event {}: fan-out queue full", event.getType());
+    }
+  }
+
+  // Comment lines keep proxies and load balancers from closing idle streams. The writes run on
+  // the fan-out pool so slow clients never hold up the shared scheduler threads.
+  @Scheduled(fixedDelayString = "${money.manager.events.heartbeat-ms:25000}")
+  public void heartbeat() {
+    if (connections.get() == 0) return;
+    try {
+      fanoutExecutor.execute(() -> {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        emitters.forEach((profileId, set) -> set.forEach(emitter -> send(profileId, emitter, ping)));
+      });
+    } catch (RejectedExecutionException e) {
+      log.warn("Skipped live event heartbeat: fan-out queue full");
+    }
+  }
+
+  public int getConnectionCount() {
+    return connections.get();
+  }
+
+  private void deliver(LiveEventDTO event) {
+    // Built once and shared: the builder itself must not be sent twice, as every build() appends to it
+    Set<ResponseBodyEmitter.DataWithMediaType> message = SseEmitter.event().name(event.getType()).data(event, MediaType.APPLICATION_JSON).build();
+    if (event.getProfileId() == null) {
+      emitters.forEach((profileId, set) -> set.forEach(emitter -> send(profileId, emitter, message)));
+    } else {
+      Set<SseEmitter> set = emitters.get(event.getProfileId());
+      if (set != null) set.forEach(emitter -> send(event.getProfileId(), emitter, message));
+    }
+  }
+
+  private void send(Long profileId, SseEmitter emitter, Set<ResponseBodyEmitter.DataWithMediaType> message) {
+    try {
+      emitter.send(message);
+    } catch (IOException | IllegalStateException e) {
+      // Client went away; the servlet container may not tell us until the next write
+      unregister(profileId, emitter);
+      emitter.completeWithError(e);
+    }
+  }
+
+  private void unregister(Long profileId, SseEmitter emitter) {
+    emitters.computeIfPresent(profileId, (id, set) -> {
+      if (set.remove(emitter)) connections.decrementAndGet();
+      return set.isEmpty() ? null : set;
+    });
+  }
+}
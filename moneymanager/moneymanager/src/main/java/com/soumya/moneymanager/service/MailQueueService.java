@@ -0,0 +1,234 @@
+package com.soumya.moneymanager.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.soumya.moneymanager.entity.MailMessageEntity;
+import com.soumya.moneymanager.repository.MailMessageRepo;
+import com.soumya.moneymanager.utils.TaskExecutors;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Outbound mail queue (tbl_mail_queue). Callers only insert a row; a scheduled drain claims
+ * due messages, sends them in batches over one SMTP connection per batch on a small worker
+ * pool, and retries failures with exponential backoff until max-attempts, after which the
+ * message is parked as DEAD.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MailQueueService {
+
+  public static final String STATUS_PENDING = "PENDING";
+  public static final String STATUS_SENDING = "SENDING";
+  public static final String STATUS_SENT = "SENT";
+  public static final String STATUS_DEAD = "DEAD";
+
+  // A claim older than this is assumed to belong to a crashed drain
+  private static final Duration STALE_CLAIM = Duration.ofMinutes(10);
+  private static final Duration MAX_BACKOFF = Duration.ofHours(6);
+  private static final Duration KEEP_SENT = Duration.ofDays(7);
+
+  private final MailMessageRepo mailMessageRepo;
+  private final JavaMailSender mailSender;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${spring.mail.properties.mail.smtp.from}")
+  private String fromEmail;
+
+  @Value("${money.manager.mail.batch-size:20}")
+  private int batchSize;
+
+  @Value("${money.manager.mail.workers:2}")
+  private int workers;
+
+  @Value("${money.manager.mail.max-attempts:6}")
+  private int maxAttempts;
+
+  @Value("${money.manager.mail.backoff-base-seconds:30}")
+  private long backoffBaseSeconds;
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  private ThreadPoolTaskExecutor mailExecutor;
+
+  @PostConstruct
+  void init() {
+    mailExecutor = TaskExecutors.bounded("mail-", workers, Integer.MAX_VALUE, virtualThreads);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    mailExecutor.shutdown();
+  }
+
+  /**
+   * Queue a message. Joins the caller's transaction, so nothing is sent if the caller rolls back.
+   */
+  @Transactional
+  public void enqueue(String to, String subject, String body, String attachmentName, byte[] attachment) {
+    mailMessageRepo.save(MailMessageEntity.builder()
+        .recipient(to)
+        .subject(subject)
+        .body(body)
+        .attachmentName(attachmentName)
+        .attachment(attachment)
+        .status(STATUS_PENDING)
+        .attempts(0)
+        .nextAttemptAt(LocalDateTime.now())
+        .build());
+  }
+
+  /**
+   * Claim up to workers * batch-size due messages and send them, one batch per worker.
+   * Returns once every batch has been recorded, so runs never overlap on this instance.
+   */
+  @Scheduled(fixedDelayString = "${money.manager.mail.poll-interval-ms:2000}")
+  public void drain() {
+    List<MailMessageEntity> claimed = transactionTemplate.execute(status -> {
+      LocalDateTime now = LocalDateTime.now();
+      mailMessageRepo.releaseStaleClaims(now.minus(STALE_CLAIM));
+      List<MailMessageEntity> due = mailMessageRepo.findDueForUpdate(now, PageRequest.of(0, batchSize * workers));
+      for (MailMessageEntity message : due) {
+        message.setStatus(STATUS_SENDING);
+        message.setClaimedAt(now);
+      }
+      return mailMessageRepo.saveAll(due);
+    });
+    if (claimed == null || claimed.isEmpty()) return;
+
+    List<CompletableFuture<Void>> batches = new ArrayList<>();
+    for (int from = 0; from < claimed.size(); from += batchSize) {
+      List<MailMessageEntity> batch = claimed.subList(from, Math.min(from + batchSize, claimed.size()));
+      batches.add(CompletableFuture.runAsync(() -> sendBatch(batch), mailExecutor));
+    }
+    CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+  }
+
+  @Scheduled(cron = "0 30 3 * * *")
+  public void purgeSent() {
+    Integer deleted = transactionTemplate.execute(status -> mailMessageRepo.deleteSentBefore(LocalDateTime.now().minus(KEEP_SENT)));
+    log.info("Purged {} sent mails", deleted);
+  }
+
+  @Transactional
+  public int requeueDead() {
+    return mailMessageRepo.requeueDead(LocalDateTime.now());
+  }
+
+  public Map<String, Long> getQueueStats() {
+    Map<String, Long> stats = new HashMap<>();
+    for (String status : List.of(STATUS_PENDING, STATUS_SENDING, STATUS_DEAD)) {
+      stats.put(status, mailMessageRepo.countByStatus(status));
+    }
+    return stats;
+  }
+
+  private void sendBatch(List<MailMessageEntity> batch) {
+    Map<Long, String> failures = new HashMap<>();
+    Map<MimeMessage, MailMessageEntity> byMessage = new IdentityHashMap<>();
+    List<MimeMessage> messages = new ArrayList<>();
+
+    for (MailMessageEntity entity : batch) {
+      try {
+        MimeMessage message = toMimeMessage(entity);
+        byMessage.put(message, entity);
+        messages.add(message);
+      } catch (Exception e) {
+        failures.put(entity.getId(), "Invalid message: " + e.getMessage());
+      }
+    }
+
+    if (!messages.isEmpty()) {
+      try {
+        // JavaMailSenderImpl sends all messages of one call over a single connection
+        mailSender.send(messages.toArray(new MimeMessage[0]));
+      } catch (MailSendException e) {
+        // Per-message failures; messages not listed were delivered
+        e.getFailedMessages().forEach((message, cause) -> {
+          MailMessageEntity entity = message instanceof MimeMessage mime ? byMessage.get(mime) : null;
+          if (entity != null) failures.put(entity.getId(), cause.getMessage());
+        });
+        if (e.getFailedMessages().isEmpty()) {
+          byMessage.values().forEach(entity -> failures.put(entity.getId(), e.getMessage()));
+        }
+      } catch (MailException e) {
+        byMessage.values().forEach(entity -> failures.put(entity.getId(), e.getMessage()));
+      }
+    }
+
+    record(batch, failures);
+  }
+
+  private void record(List<MailMessageEntity> batch, Map<Long, String> failures) {
+    transactionTemplate.executeWithoutResult(status -> {
+      LocalDateTime now = LocalDateTime.now();
+      for (MailMessageEntity message : batch) {
+        message.setClaimedAt(null);
+        String error = failures.get(message.getId());
+        if (error == null) {
+          message.setStatus(STATUS_SENT);
+          message.setSentAt(now);
+          message.setLastError(null);
+          message.setAttachment(null); // no longer needed once delivered
+          continue;
+        }
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (attempts >= maxAttempts) {
+          message.setStatus(STATUS_DEAD);
+          log.warn("Mail {} to {} moved to dead letter after {} attempts: {}", message.getId(), message.getRecipient(), attempts, error);
+        } else {
+          message.setStatus(STATUS_PENDING);
+          message.setNextAttemptAt(now.plus(backoff(attempts)));
+        }
+      }
+      mailMessageRepo.saveAll(batch);
+    });
+  }
+
+  // base, 2x base, 4x base, ... capped at MAX_BACKOFF
+  private Duration backoff(int attempts) {
+    Duration delay = Duration.ofSeconds(backoffBaseSeconds).multipliedBy(1L << Math.min(attempts - 1, 20));
+    return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+  }
+
+  private MimeMessage toMimeMessage(MailMessageEntity entity) throws Exception {
+    MimeMessage message = mailSender.createMimeMessage();
+    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+    helper.setFrom(fromEmail);
+    helper.setTo(entity.getRecipient());
+    helper.setSubject(entity.getSubject() != null ? entity.getSubject() : "");
+    helper.setText(entity.getBody() != null ? entity.getBody() : "", true); // true → enable HTML content
+    if (entity.getAttachment() != null) {
+      byte[] attachment = entity.getAttachment();
+      helper.addAttachment(entity.getAttachmentName(), () -> new java.io.ByteArrayInputStream(attachment));
+    }
+    return message;
+  }
+}
@@ -0,0 +1,114 @@
+package com.soumya.moneymanager.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.soumya.moneymanager.dto.MonthlyTotalDTO;
+import com.soumya.moneymanager.repository.MonthlyRollupRepo;
+import com.soumya.moneymanager.repository.ProfileRepo;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains tbl_monthly_rollups: one row per (profile, category, month, type) holding the
+ * sum and count of the matching transactions. Income and expense writes apply deltas in
+ * their own transaction, so readers get monthly figures in O(months) rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyRollupService {
+
+  public static final String TYPE_INCOME = "INCOME";
+  public static final String TYPE_EXPENSE = "EXPENSE";
+
+  static final String JOB_ROLLUP_BACKFILL = "monthlyRollupBackfill";
+
+  private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+
+  private final MonthlyRollupRepo monthlyRollupRepo;
+  private final ProfileRepo profileRepo;
+  private final JobCoordinatorService jobCoordinatorService;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Record a new transaction. Must be called inside the transaction that saves it.
+   */
+  public void recordAdded(Long profileId, Long categoryId, LocalDate date, String type, BigDecimal amount) {
+    if (date == null) return; // undated rows are never part of a monthly bucket
+    monthlyRollupRepo.applyDelta(profileId, categoryId, date.format(MONTH_FORMATTER), type, nz(amount), 1);
+  }
+
+  /**
+   * Remove a transaction (or the old state of an updated one) from its bucket.
+   */
+  public void recordRemoved(Long profileId, Long categoryId, LocalDate date, String type, BigDecimal amount) {
+    if (date == null) return;
+    monthlyRollupRepo.applyDelta(profileId, categoryId, date.format(MONTH_FORMATTER), type, nz(amount).negate(), -1);
+  }
+
+  /**
+   * Totals per month (all categories) between two months inclusive. Months without data are absent.
+   */
+  public Map<YearMonth, BigDecimal> getMonthlyTotals(Long profileId, String type, YearMonth from, YearMonth to) {
+    List<MonthlyTotalDTO> rows = monthlyRollupRepo.findMonthlyTotals(profileId, type, from.format(MONTH_FORMATTER), to.format(MONTH_FORMATTER));
+    Map<YearMonth, BigDecimal> result = new HashMap<>();
+    for (MonthlyTotalDTO row : rows) {
+      result.put(row.getMonth(), row.getTotal());
+    }
+    return result;
+  }
+
+  /**
+   * Recompute all rollup rows of a profile from tbl_incomes and tbl_expenses.
+   */
+  public void rebuildForProfile(Long profileId) {
+    transactionTemplate.executeWithoutResult(status -> {
+      monthlyRollupRepo.deleteByProfileId(profileId);
+      monthlyRollupRepo.rebuildExpenseRollups(profileId);
+      monthlyRollupRepo.rebuildIncomeRollups(profileId);
+    });
+  }
+
+  /**
+   * Rebuild job for existing data: recompute every profile, one transaction per profile.
+   */
+  public int rebuildAll() {
+    List<Long> profileIds = profileRepo.findAllIds();
+    for (Long profileId : profileIds) {
+      rebuildForProfile(profileId);
+    }
+    log.info("Monthly rollups rebuilt for {} profiles", profileIds.size());
+    return profileIds.size();
+  }
+
+  /**
+   * One-time migration for transactions that predate the rollup table. Every profile is rebuilt,
+   * not only those without rollup rows: a legacy profile written to after the deploy already has
+   * a delta row that covers only that write. Rebuilds are idempotent and commit one profile at a
+   * time; the job is recorded as done only once all of them succeeded. Writes from replicas
+   * still running the old version after this point need a rebuild from the admin endpoint.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfillRollups() {
+    try {
+      jobCoordinatorService.runOnceThenRecord(JOB_ROLLUP_BACKFILL, this::rebuildAll);
+    } catch (RuntimeException e) {
+      // Not recorded as done, so the next startup starts over; profiles rebuilt so far are correct
+      log.error("Monthly rollup backfill failed", e);
+    }
+  }
+
+  private static BigDecimal nz(BigDecimal v) { return v == null ? BigDecimal.ZERO : v; }
+}
@@ -1,151 +1,185 @@
 package com.soumya.moneymanager.service;
 
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.soumya.moneymanager.dto.ExpenseDTO;
-import com.soumya.moneymanager.entity.ProfileEntity;
+import com.soumya.moneymanager.dto.ProfileContactDTO;
+import com.soumya.moneymanager.dto.ProfileExpenseDTO;
+import com.soumya.moneymanager.entity.JobRunEntity;
+import com.soumya.moneymanager.entity.JobShardEntity;
+import com.soumya.moneymanager.repository.ExpenseRepo;
 import com.soumya.moneymanager.repository.ProfileRepo;
+import com.soumya.moneymanager.utils.EmailTemplate;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Daily notification jobs. A run is split into profile-id shards by JobCoordinatorService so
+ * that every instance works on it; each instance claims shards and processes them in chunks
+ * of chunk-size in id order. Each chunk's data is read with one query, mails are rendered in
+ * parallel, and the mails are queued in the same transaction that records the chunk on the
+ * shard. A shard whose node dies is taken over by another node after the last committed
+ * chunk, so nobody is mailed twice. Delivery itself is done by the mail queue's sender pool.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
-  private final ExpenseService expenseService;
-  private final IncomeService incomeService;
-  private final ProfileService profileService;
+  static final String JOB_DAILY_REMINDER = "dailyIncomeExpenseReminder";
+  static final String JOB_DAILY_SUMMARY = "dailyExpenseSummary";
+
+  private final ExpenseRepo expenseRepo;
   private final ProfileRepo profileRepo;
   private final EmailService emailService;
+  private final JobCoordinatorService jobCoordinatorService;
+  private final TransactionTemplate transactionTemplate;
 
   @Value("${money.manager.frontend.url}")
   private String frontendUrl;
 
+  @Value("${money.manager.notification.chunk-size:500}")
+  private int chunkSize;
+
+  // Parsed once at startup; rendering only walks the fragment lists
+  private EmailTemplate reminderTemplate;
+  private EmailTemplate summaryTemplate;
+  private EmailTemplate summaryRowTemplate;
+
+  @PostConstruct
+  void loadTemplates() {
+    reminderTemplate = EmailTemplate.load("templates/email/daily-reminder.html");
+    summaryTemplate = EmailTemplate.load("templates/email/daily-summary.html");
+    summaryRowTemplate = EmailTemplate.load("templates/email/daily-summary-row.html");
+  }
+
   // @Scheduled(cron= "0 * * * * *",zone="IST")
 
   @Scheduled(cron = "0 0 22 * * *", zone = "IST")
   public void sendDailyIncomeExpenseRemainder() {
     log.info("Job started: sendDailyIncomeExpenseRemainder");
-
-    List<ProfileEntity> profiles = profileRepo.findAll();
-
-    for (ProfileEntity profile : profiles) {
-      String body = "<!DOCTYPE html>"
-          + "<html>"
-          + "<head>"
-          + "<meta charset='UTF-8'>"
-          + "<style>"
-          + "body { font-family: Arial, sans-serif; background-color: #f4f4f4; margin: 0; padding: 0; }"
-          + ".container { max-width: 600px; margin: 20px auto; background: #ffffff; padding: 20px; "
-          + "box-shadow: 0 2px 8px rgba(0,0,0,0.1); border-radius: 10px; }"
-          + "h2 { color: #333333; }"
-          + "p { font-size: 16px; color: #555555; line-height: 1.5; }"
-          + ".button { display: inline-block; background-color: #4CAF50; color: white; "
-          + "padding: 12px 25px; text-decoration: none; font-size: 16px; border-radius: 5px; }"
-          + ".footer { margin-top: 20px; font-size: 13px; color: #888888; text-align: center; }"
-          + "</style>"
-          + "</head>"
-          + "<body>"
-          + "<div class='container'>"
-          + "<h2>Hi " + profile.getFullName() + ",</h2>"
-          + "<p>This is a friendly reminder for your <b>daily expense and income</b>. "
-          + "You can check the detailed summary in your Money Manager Dashboard.</p>"
-          + "<p style='text-align: center;'>"
-          + "<a href='" + frontendUrl + "' class='button'>View Dashboard</a>"
-          + "</p>"
-          + "<p>Stay on top of your finances 🚀</p>"
-          + "<div class='footer'>"
-          + "<p>Thanks,<br>Money Manager Team</p>"
-          + "</div>"
-          + "</div>"
-          + "</body>"
-          + "</html>";
-
-      emailService.sendEmail(profile.getEmail(),
-          "Daily Expense and Income Reminder",
-          body);
-    }
+    runReminder(LocalDate.now());
     log.info("Job completed: sendDailyIncomeExpenseRemainder");
   }
 
    @Scheduled(cron = "0 0 23 * * *", zone = "IST")
   public void sendDailyExpenseSummary() {
     log.info("Job started: sendDailyExpenseSummary");
+    runSummary(LocalDate.now());
+    log.info("Job completed: sendDailyExpenseSummary");
+}
+
+  /**
+   * Join runs that are still open: shards left by a node that went away, or a run started
+   * by another node while this one was busy or down.
+   */
+  @Scheduled(fixedDelayString = "${money.manager.scheduler.sweep-ms:60000}", initialDelay = 30000)
+  public void resumeUnfinishedRuns() {
+    for (JobRunEntity run : jobCoordinatorService.findUnfinishedRuns()) {
+      if (JOB_DAILY_REMINDER.equals(run.getJobName())) runReminder(run.getRunDate());
+      else if (JOB_DAILY_SUMMARY.equals(run.getJobName())) runSummary(run.getRunDate());
+    }
+  }
+
+  private void runReminder(LocalDate runDate) {
+    runSharded(JOB_DAILY_REMINDER, runDate, chunk -> chunk.parallelStream()
+        .map(profile -> new Mail(profile.getEmail(), "Daily Expense and Income Reminder", renderReminder(profile)))
+        .toList());
+  }
 
-    List<ProfileEntity> profiles = profileRepo.findAll();
-    for (ProfileEntity profile : profiles) {
-        List<ExpenseDTO> todayExpense = expenseService.getExpenseForUserOnDate(profile.getId(), LocalDate.now());
-
-        if (!todayExpense.isEmpty()) {
-            // Build table with Serial No and colorful rows
-            StringBuilder table = new StringBuilder();
-            table.append("<table style='width:100%; border-collapse:collapse; margin-top:20px;'>")
-                 .append("<tr style='background-color:#4CAF50; color:white;'>")
-                 .append("<th style='padding:8px; border:1px solid #ddd;'>S.No</th>")
-                 .append("<th style='padding:8px; border:1px solid #ddd;'>Name</th>")
-                 .append("<th style='padding:8px; border:1px solid #ddd;'>Amount</th>")
-                 .append("<th style='padding:8px; border:1px solid #ddd;'>Category</th>")
-                 .append("</tr>");
-
-            int serial = 1;
-            for (ExpenseDTO expense : todayExpense) {
-                String bgColor = (serial % 2 == 0) ? "#f2f2f2" : "#ffffff"; // alternate row color
-                table.append("<tr style='background-color:" + bgColor + ";'>")
-                     .append("<td style='padding:8px; border:1px solid #ddd; text-align:center;'>").append(serial).append("</td>")
-                     .append("<td style='padding:8px; border:1px solid #ddd;'>")
-                     .append(expense.getName() != null ? expense.getName() : "N/A")
-                     .append("</td>")
-                     .append("<td style='padding:8px; border:1px solid #ddd; text-align:right;'>")
-                     .append(expense.getAmount() != null ? expense.getAmount() : "N/A")
-                     .append("</td>")
-                     .append("<td style='padding:8px; border:1px solid #ddd; text-align:right;'>")
-                     .append(expense.getCategoryName() != null ? expense.getCategoryName() : "N/A")
-                     .append("</td>")
-                     .append("</tr>");
-                serial++;
-            }
-            table.append("</table>");
-
-            // Build email body
-            String body = "<!DOCTYPE html>"
-                + "<html>"
-                + "<head><meta charset='UTF-8'></head>"
-                + "<body style='font-family: Arial, sans-serif; background-color: #f9f9f9; padding:20px;'>"
-                + "<div style='max-width:600px; margin:0 auto; background:#ffffff; padding:20px; "
-                + "box-shadow:0 2px 8px rgba(0,0,0,0.1); border-radius:10px;'>"
-                + "<h2 style='color:#333;'>Hi " + profile.getFullName() + ",</h2>"
-                + "<p style='font-size:15px; color:#555;'>Here is your <b>daily expense summary</b> for today:</p>"
-                + table.toString()
-                + "<p style='text-align:center; margin:20px 0;'>"
-                + "<a href='" + frontendUrl + "' style='background:#4CAF50; color:white; padding:12px 25px; "
-                + "text-decoration:none; font-size:15px; border-radius:5px;'>View Dashboard</a>"
-                + "</p>"
-                + "<p style='color:#777; font-size:13px;'>Stay on top of your finances 🚀</p>"
-                + "<div style='margin-top:20px; font-size:12px; color:#888; text-align:center;'>"
-                + "Thanks,<br>Money Manager Team"
-                + "</div>"
-                + "</div>"
-                + "</body></html>";
-
-            // Send email
-            emailService.sendEmail(profile.getEmail(),
-                    "Daily Expense Summary",
-                    body);
+  private void runSummary(LocalDate runDate) {
+    runSharded(JOB_DAILY_SUMMARY, runDate, chunk -> {
+      // One query for the whole chunk instead of one per profile
+      List<Long> ids = chunk.stream().map(ProfileContactDTO::getId).toList();
+      Map<Long, List<ProfileExpenseDTO>> expensesByProfile = expenseRepo.findDailyExpensesForProfiles(ids, runDate).stream()
+          .collect(Collectors.groupingBy(ProfileExpenseDTO::getProfileId, LinkedHashMap::new, Collectors.toList()));
+
+      return chunk.parallelStream()
+          .filter(profile -> expensesByProfile.containsKey(profile.getId()))
+          .map(profile -> new Mail(profile.getEmail(), "Daily Expense Summary",
+              renderSummary(profile, expensesByProfile.get(profile.getId()))))
+          .toList();
+    });
+  }
+
+  private void runSharded(String jobName, LocalDate runDate, Function<List<ProfileContactDTO>, List<Mail>> renderChunk) {
+    jobCoordinatorService.prepareRun(jobName, runDate);
+    JobShardEntity shard;
+    while ((shard = jobCoordinatorService.claimNext(jobName, runDate)) != null) {
+      try {
+        processShard(shard, renderChunk);
+      } catch (ShardLostException e) {
+        log.warn("Shard {} of job {} was claimed again before this run finished it", shard.getShardIndex(), jobName);
+      }
+    }
+    jobCoordinatorService.finishRunIfDone(jobName, runDate);
+  }
+
+  private void processShard(JobShardEntity shard, Function<List<ProfileContactDTO>, List<Mail>> renderChunk) {
+    Long lastId = shard.getLastProfileId();
+    List<ProfileContactDTO> chunk;
+    while (!(chunk = profileRepo.findContactsBetween(lastId, shard.getRangeEnd(), PageRequest.of(0, chunkSize))).isEmpty()) {
+      List<Mail> mails = renderChunk.apply(chunk);
+      Long chunkLastId = chunk.get(chunk.size() - 1).getId();
+      int count = chunk.size();
+      // Mails and progress commit together: a chunk is either fully queued and recorded, or neither
+      transactionTemplate.executeWithoutResult(status -> {
+        if (!jobCoordinatorService.recordProgress(shard, chunkLastId, count)) {
+          throw new ShardLostException();
+        }
+        for (Mail mail : mails) {
+          emailService.sendEmail(mail.to(), mail.subject(), mail.body());
         }
+      });
+      lastId = chunkLastId;
     }
-    log.info("Job completed: sendDailyExpenseSummary");
-}
+    if (!jobCoordinatorService.completeShard(shard)) {
+      throw new ShardLostException();
+    }
+  }
 
+  private String renderReminder(ProfileContactDTO profile) {
+    return reminderTemplate.render(Map.of(
+        "fullName", nz(profile.getFullName()),
+        "dashboardUrl", frontendUrl));
+  }
+
+  private String renderSummary(ProfileContactDTO profile, List<ProfileExpenseDTO> todayExpense) {
+    // Rows are rendered straight into the page buffer
+    EmailTemplate.Fragment rows = out -> {
+      int serial = 1;
+      for (ProfileExpenseDTO expense : todayExpense) {
+        summaryRowTemplate.renderTo(out, Map.of(
+            "rowColor", (serial % 2 == 0) ? "#f2f2f2" : "#ffffff", // alternate row color
+            "serial", serial,
+            "name", expense.getName() != null ? expense.getName() : "N/A",
+            "amount", expense.getAmount() != null ? expense.getAmount() : "N/A",
+            "categoryName", expense.getCategoryName() != null ? expense.getCategoryName() : "N/A"));
+        serial++;
+      }
+    };
+    return summaryTemplate.render(Map.of(
+        "fullName", nz(profile.getFullName()),
+        "dashboardUrl", frontendUrl,
+        "rows", rows));
+  }
 
-    
-  
+  private static String nz(String v) { return v == null ? "" : v; }
 
+  private record Mail(String to, String subject, String body) {}
 
+  // Rolls back the chunk's transaction when this run's claim on the shard was superseded
+  private static class ShardLostException extends RuntimeException {}
 }
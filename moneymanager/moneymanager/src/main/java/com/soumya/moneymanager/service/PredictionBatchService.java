@@ -0,0 +1,146 @@
+package com.soumya.moneymanager.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.soumya.moneymanager.entity.JobRunEntity;
+import com.soumya.moneymanager.entity.JobShardEntity;
+import com.soumya.moneymanager.repository.ProfileRepo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Nightly refresh of tbl_budget_predictions for every profile, so prediction reads are a single
+ * keyed lookup. The run is sharded across instances by JobCoordinatorService; within a shard,
+ * profiles are read in chunks and each chunk is split fork-join style over a dedicated pool
+ * whose parallelism stays well below the connection pool size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PredictionBatchService {
+
+  static final String JOB_PREDICTION_REFRESH = "budgetPredictionRefresh";
+
+  // Profiles per fork-join leaf task
+  private static final int LEAF_SIZE = 8;
+
+  private final AIPredictionService aiPredictionService;
+  private final JobCoordinatorService jobCoordinatorService;
+  private final ProfileRepo profileRepo;
+
+  @Value("${money.manager.prediction.batch-chunk-size:500}")
+  private int chunkSize;
+
+  @Value("${money.manager.prediction.batch-parallelism:4}")
+  private int parallelism;
+
+  private ForkJoinPool batchPool;
+
+  @PostConstruct
+  void init() {
+    batchPool = new ForkJoinPool(parallelism);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    batchPool.shutdown();
+  }
+
+  @Scheduled(cron = "0 30 1 * * *", zone = AIPredictionService.PREDICTION_ZONE)
+  public void refreshAllPredictions() {
+    run(LocalDate.now());
+  }
+
+  /**
+   * Join an unfinished refresh, e.g. shards left behind by an instance that went away.
+   */
+  @Scheduled(fixedDelayString = "${money.manager.scheduler.sweep-ms:60000}", initialDelay = 45000)
+  public void resumeUnfinishedRun() {
+    for (JobRunEntity run : jobCoordinatorService.findUnfinishedRuns()) {
+      if (JOB_PREDICTION_REFRESH.equals(run.getJobName())) run(run.getRunDate());
+    }
+  }
+
+  private void run(LocalDate runDate) {
+    long startedAt = System.nanoTime();
+    int processed = 0;
+    jobCoordinatorService.prepareRun(JOB_PREDICTION_REFRESH, runDate);
+    JobShardEntity shard;
+    while ((shard = jobCoordinatorService.claimNext(JOB_PREDICTION_REFRESH, runDate)) != null) {
+      processed += processShard(shard);
+    }
+    jobCoordinatorService.finishRunIfDone(JOB_PREDICTION_REFRESH, runDate);
+
+    if (processed > 0) {
+      double seconds = Math.max((System.nanoTime() - startedAt) / 1e9, 0.001);
+      log.info("Budget predictions refreshed for {} profiles on this node in {} s ({} profiles/s)",
+          processed, String.format("%.1f", seconds), String.format("%.1f", processed / seconds));
+    }
+  }
+
+  private int processShard(JobShardEntity shard) {
+    int processed = 0;
+    Long lastId = shard.getLastProfileId();
+    List<Long> ids;
+    while (!(ids = profileRepo.findIdsBetween(lastId, shard.getRangeEnd(), PageRequest.of(0, chunkSize))).isEmpty()) {
+      int refreshed = batchPool.invoke(new RefreshTask(ids));
+      lastId = ids.get(ids.size() - 1);
+      processed += refreshed;
+      // Predictions are idempotent, so work done before losing the shard needs no rollback
+      if (!jobCoordinatorService.recordProgress(shard, lastId, ids.size())) {
+        log.warn("Shard {} of {} was claimed again before this run finished it", shard.getShardIndex(), JOB_PREDICTION_REFRESH);
+        return processed;
+      }
+    }
+    if (!jobCoordinatorService.completeShard(shard)) {
+      log.warn("Shard {} of {} was claimed again before this run finished it", shard.getShardIndex(), JOB_PREDICTION_REFRESH);
+    }
+    return processed;
+  }
+
+  /**
+   * Refreshes a slice of profile ids, splitting in halves down to LEAF_SIZE. Returns how many
+   * profiles were refreshed; a profile whose stored predictions are already current is skipped,
+   * and a failing one is logged and skipped.
+   */
+  private class RefreshTask extends RecursiveTask<Integer> {
+    private final List<Long> ids;
+
+    RefreshTask(List<Long> ids) {
+      this.ids = ids;
+    }
+
+    @Override
+    protected Integer compute() {
+      if (ids.size() <= LEAF_SIZE) {
+        int refreshed = 0;
+        for (Long profileId : ids) {
+          try {
+            if (aiPredictionService.isUpToDate(profileId)) continue;
+            aiPredictionService.refreshProfile(profileId);
+            refreshed++;
+          } catch (Exception e) {
+            log.warn("Prediction refresh failed for profile {}", profileId, e);
+          }
+        }
+        return refreshed;
+      }
+      int mid = ids.size() / 2;
+      RefreshTask left = new RefreshTask(ids.subList(0, mid));
+      left.fork();
+      int right = new RefreshTask(ids.subList(mid, ids.size())).compute();
+      return left.join() + right;
+    }
+  }
+}
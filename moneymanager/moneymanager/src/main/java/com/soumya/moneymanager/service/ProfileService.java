@@ -16,8 +16,11 @@ import com.soumya.moneymanager.dto.AuthDTO;
 import com.soumya.moneymanager.dto.ProfileDto;
 import com.soumya.moneymanager.entity.ProfileEntity;
 import com.soumya.moneymanager.repository.ProfileRepo;
+import com.soumya.moneymanager.security.ProfilePrincipal;
+import com.soumya.moneymanager.security.TokenRevocationCache;
 import com.soumya.moneymanager.utils.JwtUtil;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -33,6 +36,8 @@ public class ProfileService {
 
   private final JwtUtil jwtUtil;
 
+  private final TokenRevocationCache tokenRevocationCache;
+
   public ProfileDto registerProfile(ProfileDto profileDto) {
     ProfileEntity newProfile=toEntity(profileDto);
     newProfile.setActivationToken(UUID.randomUUID().toString());
@@ -73,6 +78,7 @@ public class ProfileService {
       user.setPassword(passwordEncoder.encode(newPassword));
       user.setResetPasswordToken(null); // Clear token after reset
       profileRepo.save(user);
+      tokenRevocationCache.revokeAll(user.getEmail()); // tokens issued with the old password stop working
   }
 
 
@@ -129,11 +135,40 @@ public class ProfileService {
 
   public ProfileEntity getCurrentProfile()
   {
+    ProfilePrincipal principal=getCurrentPrincipal();
+    if(principal!=null)
+    {
+      // Lazy reference: no select on tbl_profiles unless a field other than the id is read
+      return profileRepo.getReferenceById(principal.getId());
+    }
     Authentication authentication=SecurityContextHolder.getContext().getAuthentication();
     String email=authentication.getName();
     return profileRepo.findByEmail(email).orElseThrow(() -> new UsernameNotFoundException("User not found"+email));
   }
 
+  // Caller resolved once per request by JwtRequestFilter; null if the request was not authenticated that way
+  public ProfilePrincipal getCurrentPrincipal()
+  {
+    Authentication authentication=SecurityContextHolder.getContext().getAuthentication();
+    if(authentication!=null && authentication.getPrincipal() instanceof ProfilePrincipal principal)
+    {
+      return principal;
+    }
+    return null;
+  }
+
+  public Long getCurrentProfileId()
+  {
+    ProfilePrincipal principal=getCurrentPrincipal();
+    return principal!=null ? principal.getId() : getCurrentProfile().getId();
+  }
+
+  public String getCurrentEmail()
+  {
+    ProfilePrincipal principal=getCurrentPrincipal();
+    return principal!=null ? principal.getEmail() : SecurityContextHolder.getContext().getAuthentication().getName();
+  }
+
   public ProfileDto getPublicProfile(String email)
   {
     ProfileEntity currentUser = null;
@@ -159,15 +194,16 @@ public class ProfileService {
   public Map<String, Object> authenticateAndGenerateToken(AuthDTO authDTO) {
     try {
         authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(authDTO.getEmail(), authDTO.getPassword()));
-        System.out.println("Trying login with: " + authDTO.getEmail() + " / " + authDTO.getPassword());
 
-        String token=jwtUtil.generateToken(authDTO.getEmail());
-        String refreshToken = jwtUtil.generateRefreshToken(authDTO.getEmail());
-        System.out.println("Generated token: " + token);
+        ProfileDto user=getPublicProfile(authDTO.getEmail());
+        // Profile id and active flag travel in the token so later requests need no profile lookup
+        Map<String, Object> claims=jwtUtil.profileClaims(user.getId(), true);
+        String token=jwtUtil.generateToken(claims, authDTO.getEmail());
+        String refreshToken = jwtUtil.generateRefreshToken(claims, authDTO.getEmail());
         return Map.of(
           "token",token,
           "refreshToken", refreshToken,
-          "user",getPublicProfile(authDTO.getEmail())
+          "user",user
         );
     } catch (Exception e) {
       throw new RuntimeException("Invalid email or password");  
@@ -175,12 +211,30 @@ public class ProfileService {
    
   }
 
+  /**
+   * Short-lived token for opening the event stream as the current user.
+   */
+  public String issueEventStreamToken() {
+    return jwtUtil.generateEventStreamToken(getCurrentProfileId(), getCurrentEmail());
+  }
+
   public Map<String, Object> refreshToken(Map<String, String> request) {
       String refreshToken = request.get("refreshToken");
-      String username = jwtUtil.extractUsername(refreshToken);
+      Claims claims = jwtUtil.parseClaims(refreshToken);
+      // Access and event-stream tokens are signed with the same key; only a refresh token may be exchanged
+      if (!JwtUtil.TOKEN_TYPE_REFRESH.equals(claims.get(JwtUtil.CLAIM_TOKEN_TYPE))) {
+          throw new RuntimeException("Invalid refresh token");
+      }
+      String username = claims.getSubject();
       
-      if (username != null && jwtUtil.validateToken(refreshToken, username)) {
-          String newAccessToken = jwtUtil.generateToken(username);
+      if (username != null && !tokenRevocationCache.isRevoked(username, claims.getIssuedAt())) {
+          // Access tokens are trusted without a profile lookup, so check the account before minting one
+          ProfileEntity profile = profileRepo.findByEmail(username)
+              .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+          if (!Boolean.TRUE.equals(profile.getIsActive())) {
+              throw new RuntimeException("Account is not active");
+          }
+          String newAccessToken = jwtUtil.generateToken(jwtUtil.profileClaims(profile.getId(), profile.getIsActive()), username);
           return Map.of(
               "token", newAccessToken,
               "refreshToken", refreshToken // Return the same refresh token or rotate it if needed
@@ -4,9 +4,9 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.soumya.moneymanager.dto.SavingsGoalDTO;
-import com.soumya.moneymanager.entity.ProfileEntity;
 import com.soumya.moneymanager.entity.SavingsGoalEntity;
 import com.soumya.moneymanager.repository.SavingsGoalRepository;
 
@@ -18,13 +18,14 @@ public class SavingsGoalService {
 
   private final SavingsGoalRepository savingsGoalRepository;
   private final ProfileService profileService;
+  private final DataVersionService dataVersionService;
 
   /**
    * Create or update a savings goal
    */
+  @Transactional
   public SavingsGoalDTO createGoal(SavingsGoalDTO goalDTO) {
-    ProfileEntity profile = profileService.getCurrentProfile();
-    Long userId = profile.getId();
+    Long userId = profileService.getCurrentProfileId();
 
     // Validate target amount
     if (goalDTO.getTargetAmount() == null || goalDTO.getTargetAmount() <= 0) {
@@ -82,6 +83,7 @@ public class SavingsGoalService {
     }
 
     SavingsGoalEntity savedGoal = savingsGoalRepository.save(goalEntity);
+    dataVersionService.bump(userId);
     return toDTO(savedGoal);
   }
 
@@ -89,13 +91,13 @@ public class SavingsGoalService {
    * Get all goals for a user
    */
   public List<SavingsGoalDTO> getGoalsByUser(Long userId) {
-    ProfileEntity currentProfile = profileService.getCurrentProfile();
+    Long currentProfileId = profileService.getCurrentProfileId();
 
     // Use provided userId or current user's id
-    Long targetUserId = (userId != null) ? userId : currentProfile.getId();
+    Long targetUserId = (userId != null) ? userId : currentProfileId;
 
     // Validate that user can only access their own goals
-    if (!targetUserId.equals(currentProfile.getId())) {
+    if (!targetUserId.equals(currentProfileId)) {
       throw new RuntimeException("Unauthorized to access goals for this user");
     }
 
@@ -0,0 +1,63 @@
+package com.soumya.moneymanager.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Opaque cursors for keyset pagination over (date, id), or over id alone for listings
+ * ordered by id. A cursor encodes the position of the last row of a page; the next page
+ * starts strictly after it.
+ */
+public final class CursorUtil {
+
+  public static final int DEFAULT_PAGE_SIZE = 20;
+  public static final int MAX_PAGE_SIZE = 100;
+
+  // Used in place of a cursor for the first page, outside any real transaction date
+  public static final LocalDate MIN_DATE = LocalDate.of(1000, 1, 1);
+  public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+  private CursorUtil() {}
+
+  public static String encode(LocalDate date, Long id) {
+    String raw = date + "|" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static Position decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int sep = raw.indexOf('|');
+      return new Position(LocalDate.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+    } catch (RuntimeException e) {
+      throw new RuntimeException("Invalid cursor");
+    }
+  }
+
+  public static String encodeId(Long id) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static Long decodeId(String cursor) {
+    try {
+      return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+    } catch (RuntimeException e) {
+      throw new RuntimeException("Invalid cursor");
+    }
+  }
+
+  /**
+   * Position before the first row, for the given direction.
+   */
+  public static Position start(boolean ascending) {
+    return ascending ? new Position(MIN_DATE, 0L) : new Position(MAX_DATE, Long.MAX_VALUE);
+  }
+
+  public static int pageSize(Integer limit) {
+    if (limit == null || limit <= 0) return DEFAULT_PAGE_SIZE;
+    return Math.min(limit, MAX_PAGE_SIZE);
+  }
+
+  public record Position(LocalDate date, Long id) {}
+}
@@ -0,0 +1,135 @@
+package com.soumya.moneymanager.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Minimal HTML template, parsed once into a list of fragments and rendered many times.
+ * {{name}} inserts a value HTML-escaped, {{{name}}} inserts it as is. A value may be a
+ * {@link Fragment}, which writes straight into the output (used for repeated rows).
+ * Missing and null values render as an empty string.
+ */
+public final class EmailTemplate {
+
+  /**
+   * Content written directly into the render buffer.
+   */
+  @FunctionalInterface
+  public interface Fragment {
+    void writeTo(StringBuilder out);
+  }
+
+  // Reused per thread; dropped if a render made it unusually large
+  private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+  private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(8 * 1024));
+
+  // Literal text parts are Strings, placeholders are Placeholder instances
+  private final Object[] parts;
+  private final int literalLength;
+
+  private EmailTemplate(Object[] parts, int literalLength) {
+    this.parts = parts;
+    this.literalLength = literalLength;
+  }
+
+  public static EmailTemplate load(String classpathLocation) {
+    try (InputStream in = new ClassPathResource(classpathLocation).getInputStream()) {
+      return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new RuntimeException("Cannot load email template " + classpathLocation + ": " + e.getMessage(), e);
+    }
+  }
+
+  public static EmailTemplate compile(String source) {
+    List<Object> parts = new ArrayList<>();
+    int literalLength = 0;
+    int pos = 0;
+    while (pos < source.length()) {
+      int open = source.indexOf("{{", pos);
+      if (open < 0) break;
+      boolean raw = source.startsWith("{{{", open);
+      String close = raw ? "}}}" : "}}";
+      int start = open + (raw ? 3 : 2);
+      int end = source.indexOf(close, start);
+      if (end < 0) {
+        throw new RuntimeException("Unclosed placeholder at offset " + open);
+      }
+      if (open > pos) {
+        parts.add(source.substring(pos, open));
+        literalLength += open - pos;
+      }
+      parts.add(new Placeholder(source.substring(start, end).trim(), raw));
+      pos = end + close.length();
+    }
+    if (pos < source.length()) {
+      parts.add(source.substring(pos));
+      literalLength += source.length() - pos;
+    }
+    return new EmailTemplate(parts.toArray(), literalLength);
+  }
+
+  /**
+   * Render into a fresh String, using this thread's reusable buffer.
+   */
+  public String render(Map<String, ?> values) {
+    StringBuilder out = BUFFER.get();
+    out.setLength(0);
+    renderTo(out, values);
+    String result = out.toString();
+    if (out.capacity() > MAX_RETAINED_CAPACITY) {
+      BUFFER.remove();
+    }
+    return result;
+  }
+
+  public void renderTo(StringBuilder out, Map<String, ?> values) {
+    out.ensureCapacity(out.length() + literalLength);
+    for (Object part : parts) {
+      if (part instanceof String literal) {
+        out.append(literal);
+        continue;
+      }
+      Placeholder placeholder = (Placeholder) part;
+      Object value = values.get(placeholder.name());
+      if (value == null) continue;
+      if (value instanceof Fragment fragment) {
+        fragment.writeTo(out);
+      } else if (placeholder.raw()) {
+        out.append(value);
+      } else {
+        escapeTo(out, String.valueOf(value));
+      }
+    }
+  }
+
+  public static void escapeTo(StringBuilder out, String text) {
+    // Copy runs of safe characters in bulk; most values contain nothing to escape
+    int start = 0;
+    for (int i = 0; i < text.length(); i++) {
+      String entity = switch (text.charAt(i)) {
+        case '&' -> "&amp;";
+        case '<' -> "&lt;";
+        case '>' -> "&gt;";
+        case '"' -> "&quot;";
+        case '\'' -> "&#39;";
+        default -> null;
+      };
+      if (entity == null) continue;
+      out.append(text, start, i).append(entity);
+      start = i + 1;
+    }
+    if (start == 0) {
+      out.append(text);
+    } else {
+      out.append(text, start, text.length());
+    }
+  }
+
+  private record Placeholder(String name, boolean raw) {}
+}
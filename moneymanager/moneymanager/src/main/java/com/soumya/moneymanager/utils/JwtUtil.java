@@ -1,15 +1,19 @@
 package com.soumya.moneymanager.utils;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
 import javax.crypto.SecretKey;
 
+import jakarta.annotation.PostConstruct;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -23,12 +27,39 @@ public class JwtUtil {
     // Token validity (e.g., 10 hours)
     private final long JWT_EXPIRATION = 1000L * 60 * 60 * 10; // 10 hours
     private final long REFRESH_TOKEN_EXPIRATION = 1000L * 60 * 60 * 24 * 7; // 7 days
+    private final long EVENT_STREAM_TOKEN_EXPIRATION = 1000L * 60; // 1 minute, only needed to open the stream
+
+    // Claims that let the request filter build the principal without reading tbl_profiles
+    public static final String CLAIM_PROFILE_ID = "pid";
+    public static final String CLAIM_ACTIVE = "active";
+    // Restricts a token to one use; tokens without it are regular access tokens
+    public static final String CLAIM_SCOPE = "scope";
+    public static final String SCOPE_EVENT_STREAM = "event-stream";
+    // Marks refresh tokens; /refresh-token only accepts tokens carrying it
+    public static final String CLAIM_TOKEN_TYPE = "token_type";
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
+    // Key and parser are immutable and thread-safe, so they are built once
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
 
     /**
      * 🔑 Get signing key from secret string
      */
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
+    }
+
+    public long getRefreshTokenExpirationMillis() {
+        return REFRESH_TOKEN_EXPIRATION;
     }
 
     /**
@@ -57,18 +88,22 @@ public class JwtUtil {
      * 📦 Parse and return all claims
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * ✅ Verify signature and expiry in a single parse and return the claims.
+     * Throws a JwtException (e.g. ExpiredJwtException) if the token is not valid.
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
     }
 
     /**
-     * ⏳ Check if token is expired
+     * 🪪 Claims identifying a profile, embedded in access and refresh tokens
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Map<String, Object> profileClaims(Long profileId, boolean active) {
+        return Map.of(CLAIM_PROFILE_ID, profileId, CLAIM_ACTIVE, active);
     }
 
     /**
@@ -85,11 +120,29 @@ public class JwtUtil {
         return createToken(claims, username, JWT_EXPIRATION);
     }
 
+    /**
+     * 📡 Generate a short-lived token that only opens the event stream. EventSource has to pass
+     * it in the URL, where it ends up in access logs, so it must not be a full access token.
+     */
+    public String generateEventStreamToken(Long profileId, String username) {
+        Map<String, Object> claims = Map.of(CLAIM_PROFILE_ID, profileId, CLAIM_ACTIVE, true, CLAIM_SCOPE, SCOPE_EVENT_STREAM);
+        return createToken(claims, username, EVENT_STREAM_TOKEN_EXPIRATION);
+    }
+
     /**
      * 🔄 Generate Refresh Token
      */
     public String generateRefreshToken(String username) {
-        return createToken(Map.of(), username, REFRESH_TOKEN_EXPIRATION);
+        return generateRefreshToken(Map.of(), username);
+    }
+
+    /**
+     * 🔄 Generate Refresh Token with custom claims
+     */
+    public String generateRefreshToken(Map<String, Object> claims, String username) {
+        Map<String, Object> refreshClaims = new HashMap<>(claims);
+        refreshClaims.put(CLAIM_TOKEN_TYPE, TOKEN_TYPE_REFRESH);
+        return createToken(refreshClaims, username, REFRESH_TOKEN_EXPIRATION);
     }
 
     /**
@@ -109,7 +162,7 @@ public class JwtUtil {
      * ✅ Validate token against username and expiration
      */
     public boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token); // the parser already rejects expired tokens
+        return claims.getSubject().equals(username) && !claims.getExpiration().before(new Date());
     }
 }
@@ -0,0 +1,25 @@
+package com.soumya.moneymanager.utils;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Bounded worker pools owned by individual services. With virtual threads enabled the
+ * workers are virtual, but the pool size still caps how many tasks run at once, which is
+ * what protects SMTP, the database pool and memory-heavy exports.
+ */
+public final class TaskExecutors {
+
+  private TaskExecutors() {}
+
+  public static ThreadPoolTaskExecutor bounded(String threadNamePrefix, int threads, int queueCapacity, boolean virtualThreads) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix(threadNamePrefix);
+    // Virtual threads need Java 21; on older runtimes the setting is ignored, as Boot does
+    executor.setVirtualThreads(virtualThreads && Runtime.version().feature() >= 21);
+    executor.initialize();
+    return executor;
+  }
+}
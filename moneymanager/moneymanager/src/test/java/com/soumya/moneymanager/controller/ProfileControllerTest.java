@@ -0,0 +1,90 @@
+package com.soumya.moneymanager.controller;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.soumya.moneymanager.entity.ProfileEntity;
+import com.soumya.moneymanager.repository.ProfileRepo;
+import com.soumya.moneymanager.security.TokenRevocationCache;
+import com.soumya.moneymanager.service.EmailService;
+import com.soumya.moneymanager.service.ProfileService;
+import com.soumya.moneymanager.utils.JwtUtil;
+
+/**
+ * /refresh-token with real signed tokens: only a refresh token can be exchanged for a new
+ * access token, not the event-stream token that travels in URLs or a plain access token.
+ */
+class ProfileControllerTest {
+
+  private static final String EMAIL = "user@moneymanager.test";
+  private static final Long PROFILE_ID = 7L;
+
+  private JwtUtil jwtUtil;
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    jwtUtil = new JwtUtil();
+    ReflectionTestUtils.setField(jwtUtil, "secret", "test-secret-that-is-long-enough-for-hs256-signing");
+    ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+
+    ProfileRepo profileRepo = mock(ProfileRepo.class);
+    when(profileRepo.findByEmail(EMAIL)).thenReturn(Optional.of(ProfileEntity.builder()
+        .id(PROFILE_ID)
+        .email(EMAIL)
+        .isActive(true)
+        .build()));
+
+    ProfileService profileService = new ProfileService(profileRepo, mock(EmailService.class), mock(PasswordEncoder.class),
+        mock(AuthenticationManager.class), jwtUtil, mock(TokenRevocationCache.class));
+    mockMvc = MockMvcBuilders.standaloneSetup(new ProfileController(profileService)).build();
+  }
+
+  @Test
+  void refreshTokenIsExchanged() throws Exception {
+    String refreshToken = jwtUtil.generateRefreshToken(jwtUtil.profileClaims(PROFILE_ID, true), EMAIL);
+
+    mockMvc.perform(refresh(refreshToken))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.token").isNotEmpty());
+  }
+
+  @Test
+  void eventStreamTokenIsRefused() throws Exception {
+    String streamToken = jwtUtil.generateEventStreamToken(PROFILE_ID, EMAIL);
+
+    mockMvc.perform(refresh(streamToken))
+        .andExpect(status().isUnauthorized())
+        .andExpect(jsonPath("$.token").doesNotExist());
+  }
+
+  @Test
+  void accessTokenIsRefused() throws Exception {
+    String accessToken = jwtUtil.generateToken(jwtUtil.profileClaims(PROFILE_ID, true), EMAIL);
+
+    mockMvc.perform(refresh(accessToken))
+        .andExpect(status().isUnauthorized())
+        .andExpect(jsonPath("$.token").doesNotExist());
+  }
+
+  private static RequestBuilder refresh(String token) {
+    return post("/refresh-token")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"refreshToken\":\"" + token + "\"}");
+  }
+}
@@ -0,0 +1,254 @@
+package com.soumya.moneymanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.soumya.moneymanager.entity.JobRunEntity;
+import com.soumya.moneymanager.entity.JobShardEntity;
+import com.soumya.moneymanager.entity.ProfileEntity;
+import com.soumya.moneymanager.repository.JobRunRepo;
+import com.soumya.moneymanager.repository.JobShardRepo;
+import com.soumya.moneymanager.repository.ProfileRepo;
+import com.soumya.moneymanager.repository.SchedulerNodeRepo;
+
+/**
+ * Several application contexts, each standing in for one instance, coordinating a sharded
+ * job through one shared database (H2 in MySQL mode). The job "processes" a profile by
+ * counting it in the same transaction that records the chunk, the way NotificationService
+ * queues mails, so a profile counted twice means a duplicate mail.
+ */
+class JobCoordinatorServiceTest {
+
+  private static final String DB_URL = "jdbc:h2:mem:scheduler;MODE=MySQL;NON_KEYWORDS=MONTH;DB_CLOSE_DELAY=-1";
+  private static final int NODES = 3;
+  private static final int PROFILES = 257;
+  private static final int CHUNK_SIZE = 10;
+
+  private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+  private final Map<Long, AtomicInteger> processedCount = new ConcurrentHashMap<>();
+
+  @BeforeAll
+  static void startNodes() {
+    for (int i = 0; i < NODES; i++) {
+      // Passed as arguments so they override application.properties; the first node creates the schema
+      nodes.add(new SpringApplicationBuilder(Config.class)
+          .web(WebApplicationType.NONE)
+          .run(
+              "--spring.datasource.url=" + DB_URL,
+              "--spring.datasource.driver-class-name=org.h2.Driver",
+              "--spring.datasource.username=sa",
+              "--spring.datasource.password=",
+              "--spring.jpa.hibernate.ddl-auto=" + (i == 0 ? "create-drop" : "none"),
+              "--spring.jpa.show-sql=false"));
+    }
+    ProfileRepo profileRepo = bean(0, ProfileRepo.class);
+    for (int i = 0; i < PROFILES; i++) {
+      profileRepo.save(ProfileEntity.builder().fullName("User " + i).email("user" + i + "@moneymanager.test").isActive(true).build());
+    }
+  }
+
+  @AfterAll
+  static void stopNodes() {
+    for (int i = nodes.size() - 1; i >= 0; i--) {
+      nodes.get(i).close();
+    }
+  }
+
+  @BeforeEach
+  void clearRuns() {
+    bean(0, JobShardRepo.class).deleteAll();
+    bean(0, JobRunRepo.class).deleteAll();
+  }
+
+  @Test
+  void nodesShareARunAndProcessEveryProfileOnce() throws Exception {
+    LocalDate runDate = LocalDate.of(2026, 1, 1);
+    Map<String, AtomicInteger> byNode = new ConcurrentHashMap<>();
+
+    // All nodes start the job at the same moment, as their cron triggers would
+    ExecutorService threads = Executors.newFixedThreadPool(NODES);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> runs = new ArrayList<>();
+    for (int i = 0; i < NODES; i++) {
+      int node = i;
+      runs.add(threads.submit(() -> {
+        start.await();
+        runJob(node, runDate, byNode);
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> run : runs) run.get();
+    threads.shutdown();
+
+    assertEveryProfileProcessedOnce();
+    JobRunEntity run = bean(0, JobRunRepo.class).findByJobNameAndRunDate("testJob", runDate).orElseThrow();
+    assertThat(run.getStatus()).isEqualTo(JobCoordinatorService.STATUS_COMPLETED);
+    assertThat(run.getProcessed()).isEqualTo(PROFILES);
+    assertThat(bean(0, JobShardRepo.class).findAll()).allSatisfy(shard ->
+        assertThat(shard.getStatus()).isEqualTo(JobCoordinatorService.STATUS_COMPLETED));
+    // Shards were split for all live nodes
+    assertThat(bean(0, JobShardRepo.class).count()).isEqualTo(NODES * 2L);
+  }
+
+  @Test
+  void shardOfADeadNodeIsResumedAfterItsLastChunk() {
+    LocalDate runDate = LocalDate.of(2026, 1, 2);
+    JobCoordinatorService nodeA = bean(0, JobCoordinatorService.class);
+
+    nodeA.prepareRun("testJob", runDate);
+    JobShardEntity shard = nodeA.claimNext("testJob", runDate);
+    assertThat(processChunk(0, shard)).isTrue();
+
+    // Node A stops heartbeating mid-shard
+    expireHeartbeat(nodeA.getNodeId());
+
+    // The sweep on node B takes over A's shard, then finishes the whole run
+    runJob(1, runDate, new ConcurrentHashMap<>());
+
+    assertEveryProfileProcessedOnce();
+    // A comes back and tries to continue: its claim was superseded
+    assertThat(processChunk(0, shard)).isFalse();
+    assertThat(nodeA.completeShard(shard)).isFalse();
+    assertEveryProfileProcessedOnce();
+
+    // Node A is live again for the other tests
+    nodeA.heartbeat();
+  }
+
+  @Test
+  void reclaimBySameNodeFencesTheEarlierClaim() {
+    LocalDate runDate = LocalDate.of(2026, 1, 3);
+    JobCoordinatorService node = bean(0, JobCoordinatorService.class);
+
+    node.prepareRun("testJob", runDate);
+    JobShardEntity first = node.claimNext("testJob", runDate);
+    assertThat(processChunk(0, first)).isTrue();
+
+    // The lease runs out while the first thread is slow, and the node's sweep claims the shard again
+    JobShardRepo shardRepo = bean(0, JobShardRepo.class);
+    JobShardEntity stored = shardRepo.findById(first.getId()).orElseThrow();
+    stored.setLeaseUntil(LocalDateTime.now().minusSeconds(1));
+    shardRepo.save(stored);
+    JobShardEntity second = node.claimNext("testJob", runDate);
+
+    assertThat(second.getId()).isEqualTo(first.getId());
+    assertThat(second.getOwnerNode()).isEqualTo(first.getOwnerNode());
+    assertThat(second.getClaimToken()).isNotEqualTo(first.getClaimToken());
+
+    // Only the newer claim may record chunks or complete the shard
+    assertThat(processChunk(0, first)).isFalse();
+    assertThat(processChunk(0, second)).isTrue();
+    assertThat(node.completeShard(first)).isFalse();
+    assertThat(processedCount.values()).allSatisfy(count -> assertThat(count.get()).isEqualTo(1));
+  }
+
+  @Test
+  void oneTimeTaskIsRecordedOnlyAfterItSucceeds() {
+    JobCoordinatorService node = bean(0, JobCoordinatorService.class);
+    JobRunRepo runRepo = bean(0, JobRunRepo.class);
+    AtomicInteger attempts = new AtomicInteger();
+
+    // First startup: the task fails part-way and nothing is recorded
+    assertThatThrownBy(() -> node.runOnceThenRecord("testBackfill", () -> {
+      attempts.incrementAndGet();
+      throw new RuntimeException("cut short");
+    })).hasMessage("cut short");
+    assertThat(runRepo.findByJobNameAndRunDate("testBackfill", JobCoordinatorService.ONE_TIME_RUN_DATE)).isEmpty();
+
+    // Next startup runs it again, and after that it is done for good
+    assertThat(node.runOnceThenRecord("testBackfill", () -> attempts.incrementAndGet())).isTrue();
+    assertThat(bean(1, JobCoordinatorService.class).runOnceThenRecord("testBackfill", () -> attempts.incrementAndGet())).isFalse();
+    assertThat(attempts.get()).isEqualTo(2);
+    assertThat(runRepo.findByJobNameAndRunDate("testBackfill", JobCoordinatorService.ONE_TIME_RUN_DATE).orElseThrow().getProcessed())
+        .isEqualTo(2);
+  }
+
+  // The loop NotificationService.runSharded runs on each node
+  private void runJob(int node, LocalDate runDate, Map<String, AtomicInteger> byNode) {
+    JobCoordinatorService coordinator = bean(node, JobCoordinatorService.class);
+    coordinator.prepareRun("testJob", runDate);
+    JobShardEntity shard;
+    while ((shard = coordinator.claimNext("testJob", runDate)) != null) {
+      byNode.computeIfAbsent(coordinator.getNodeId(), id -> new AtomicInteger()).incrementAndGet();
+      while (processChunk(node, shard)) {
+        // until the shard is exhausted or lost
+      }
+      coordinator.completeShard(shard);
+    }
+    coordinator.finishRunIfDone("testJob", runDate);
+  }
+
+  /**
+   * Process the next chunk of the shard as the given node; false when the shard is exhausted
+   * or the claim was superseded (the chunk is then rolled back).
+   */
+  private boolean processChunk(int node, JobShardEntity shard) {
+    JobCoordinatorService coordinator = bean(node, JobCoordinatorService.class);
+    ProfileRepo profileRepo = bean(node, ProfileRepo.class);
+    Boolean done = bean(node, TransactionTemplate.class).execute(status -> {
+      Long lastId = bean(node, JobShardRepo.class).findById(shard.getId()).orElseThrow().getLastProfileId();
+      List<Long> ids = profileRepo.findIdsBetween(lastId, shard.getRangeEnd(), PageRequest.of(0, CHUNK_SIZE));
+      if (ids.isEmpty()) return false;
+      if (!coordinator.recordProgress(shard, ids.get(ids.size() - 1), ids.size())) return false;
+      ids.forEach(id -> processedCount.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet());
+      return true;
+    });
+    return Boolean.TRUE.equals(done);
+  }
+
+  private void assertEveryProfileProcessedOnce() {
+    List<Long> ids = bean(0, ProfileRepo.class).findAllIds();
+    assertThat(processedCount.keySet()).containsExactlyInAnyOrderElementsOf(ids);
+    assertThat(processedCount.values()).allSatisfy(count -> assertThat(count.get()).isEqualTo(1));
+  }
+
+  private static void expireHeartbeat(String nodeId) {
+    SchedulerNodeRepo nodeRepo = bean(0, SchedulerNodeRepo.class);
+    bean(0, TransactionTemplate.class).executeWithoutResult(status ->
+        nodeRepo.heartbeat(nodeId, LocalDateTime.now().minusMinutes(5)));
+  }
+
+  private static <T> T bean(int node, Class<T> type) {
+    return nodes.get(node).getBean(type);
+  }
+
+  @SpringBootConfiguration
+  @EnableAutoConfiguration
+  @EntityScan(basePackageClasses = JobShardEntity.class)
+  @EnableJpaRepositories(basePackageClasses = JobShardRepo.class, includeFilters = @ComponentScan.Filter(
+      type = FilterType.ASSIGNABLE_TYPE, classes = {JobRunRepo.class, JobShardRepo.class, SchedulerNodeRepo.class, ProfileRepo.class}))
+  @Import(JobCoordinatorService.class)
+  static class Config {
+  }
+}
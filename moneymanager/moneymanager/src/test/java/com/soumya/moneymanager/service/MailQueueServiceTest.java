@@ -0,0 +1,207 @@
+package com.soumya.moneymanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.soumya.moneymanager.entity.MailMessageEntity;
+import com.soumya.moneymanager.repository.MailMessageRepo;
+
+/**
+ * Drains tbl_mail_queue (H2 in MySQL mode) into an in-process GreenMail SMTP server. Failures
+ * are produced by pointing the sender at a closed port.
+ */
+@SpringBootTest(classes = MailQueueServiceTest.Config.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:mailqueue;MODE=MySQL;NON_KEYWORDS=MONTH;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.mail.properties.mail.smtp.from=noreply@moneymanager.test",
+    "money.manager.mail.batch-size=2",
+    "money.manager.mail.workers=2",
+    "money.manager.mail.max-attempts=3",
+    "money.manager.mail.backoff-base-seconds=30"})
+class MailQueueServiceTest {
+
+  @RegisterExtension
+  static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+  @Autowired
+  private MailQueueService mailQueueService;
+
+  @Autowired
+  private MailMessageRepo mailMessageRepo;
+
+  @Autowired
+  private JavaMailSenderImpl mailSender;
+
+  @BeforeEach
+  void reset() {
+    mailMessageRepo.deleteAll();
+    mailSender.setPort(ServerSetupTest.SMTP.getPort());
+  }
+
+  @Test
+  void drainSendsDueMessagesInBatches() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      mailQueueService.enqueue("user" + i + "@moneymanager.test", "Subject " + i, "<p>Body " + i + "</p>", null, null);
+    }
+
+    // workers * batch-size = 4 messages per drain
+    mailQueueService.drain();
+    assertThat(greenMail.getReceivedMessages()).hasSize(4);
+    assertThat(mailMessageRepo.countByStatus(MailQueueService.STATUS_SENT)).isEqualTo(4);
+    assertThat(mailMessageRepo.countByStatus(MailQueueService.STATUS_PENDING)).isEqualTo(1);
+
+    mailQueueService.drain();
+    assertThat(greenMail.getReceivedMessages()).hasSize(5);
+    assertThat(mailMessageRepo.findAll()).allSatisfy(message -> {
+      assertThat(message.getStatus()).isEqualTo(MailQueueService.STATUS_SENT);
+      assertThat(message.getSentAt()).isNotNull();
+      assertThat(message.getClaimedAt()).isNull();
+    });
+    assertThat(greenMail.getReceivedMessages()[0].getSubject()).startsWith("Subject");
+  }
+
+  @Test
+  void attachmentIsDeliveredAndDroppedAfterSending() throws Exception {
+    mailQueueService.enqueue("user@moneymanager.test", "Report", "<p>See attached</p>", "report.csv", "a,b\n1,2\n".getBytes());
+
+    mailQueueService.drain();
+
+    assertThat(greenMail.getReceivedMessages()).hasSize(1);
+    assertThat(greenMail.getReceivedMessages()[0].getContentType()).startsWith("multipart/mixed");
+    assertThat(single().getAttachment()).isNull();
+  }
+
+  @Test
+  void failedSendIsRetriedWithExponentialBackoff() throws Exception {
+    mailQueueService.enqueue("user@moneymanager.test", "Retry", "<p>Retry</p>", null, null);
+    mailSender.setPort(closedPort());
+
+    LocalDateTime before = LocalDateTime.now();
+    mailQueueService.drain();
+    MailMessageEntity message = single();
+    assertThat(message.getStatus()).isEqualTo(MailQueueService.STATUS_PENDING);
+    assertThat(message.getAttempts()).isEqualTo(1);
+    assertThat(message.getLastError()).isNotBlank();
+    assertThat(Duration.between(before, message.getNextAttemptAt())).isBetween(Duration.ofSeconds(29), Duration.ofSeconds(32));
+
+    // Not due yet, so a drain leaves it alone
+    mailQueueService.drain();
+    assertThat(single().getAttempts()).isEqualTo(1);
+
+    makeDue();
+    before = LocalDateTime.now();
+    mailQueueService.drain();
+    message = single();
+    assertThat(message.getAttempts()).isEqualTo(2);
+    assertThat(Duration.between(before, message.getNextAttemptAt())).isBetween(Duration.ofSeconds(59), Duration.ofSeconds(62));
+
+    mailSender.setPort(ServerSetupTest.SMTP.getPort());
+    makeDue();
+    mailQueueService.drain();
+    message = single();
+    assertThat(message.getStatus()).isEqualTo(MailQueueService.STATUS_SENT);
+    assertThat(message.getLastError()).isNull();
+    assertThat(greenMail.getReceivedMessages()).hasSize(1);
+  }
+
+  @Test
+  void messageMovesToDeadAfterMaxAttemptsAndCanBeRequeued() throws Exception {
+    mailQueueService.enqueue("user@moneymanager.test", "Dead", "<p>Dead</p>", null, null);
+    mailSender.setPort(closedPort());
+
+    for (int attempt = 1; attempt <= 3; attempt++) {
+      makeDue();
+      mailQueueService.drain();
+    }
+    MailMessageEntity message = single();
+    assertThat(message.getStatus()).isEqualTo(MailQueueService.STATUS_DEAD);
+    assertThat(message.getAttempts()).isEqualTo(3);
+    assertThat(mailQueueService.getQueueStats()).containsEntry(MailQueueService.STATUS_DEAD, 1L);
+
+    // Dead messages are never picked up again on their own
+    makeDue();
+    mailQueueService.drain();
+    assertThat(single().getAttempts()).isEqualTo(3);
+
+    mailSender.setPort(ServerSetupTest.SMTP.getPort());
+    assertThat(mailQueueService.requeueDead()).isEqualTo(1);
+    mailQueueService.drain();
+    assertThat(single().getStatus()).isEqualTo(MailQueueService.STATUS_SENT);
+    assertThat(greenMail.getReceivedMessages()).hasSize(1);
+  }
+
+  @Test
+  void staleClaimIsReleasedAndSent() throws Exception {
+    mailQueueService.enqueue("user@moneymanager.test", "Stale", "<p>Stale</p>", null, null);
+    // Left in SENDING by a drain that died
+    MailMessageEntity message = single();
+    message.setStatus(MailQueueService.STATUS_SENDING);
+    message.setClaimedAt(LocalDateTime.now().minusHours(1));
+    mailMessageRepo.save(message);
+
+    mailQueueService.drain();
+
+    assertThat(single().getStatus()).isEqualTo(MailQueueService.STATUS_SENT);
+    assertThat(greenMail.getReceivedMessages()).hasSize(1);
+  }
+
+  private MailMessageEntity single() {
+    List<MailMessageEntity> all = mailMessageRepo.findAll();
+    assertThat(all).hasSize(1);
+    return all.get(0);
+  }
+
+  private void makeDue() {
+    for (MailMessageEntity message : mailMessageRepo.findAll()) {
+      message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+      mailMessageRepo.save(message);
+    }
+  }
+
+  private static int closedPort() throws Exception {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  @SpringBootConfiguration
+  @EnableAutoConfiguration
+  @EntityScan(basePackageClasses = MailMessageEntity.class)
+  @EnableJpaRepositories(basePackageClasses = MailMessageRepo.class, includeFilters = @ComponentScan.Filter(
+      type = FilterType.ASSIGNABLE_TYPE, classes = MailMessageRepo.class))
+  @Import(MailQueueService.class)
+  static class Config {
+
+    @Bean
+    JavaMailSenderImpl mailSender() {
+      JavaMailSenderImpl sender = new JavaMailSenderImpl();
+      sender.setHost("localhost");
+      sender.setPort(ServerSetupTest.SMTP.getPort());
+      return sender;
+    }
+  }
+}
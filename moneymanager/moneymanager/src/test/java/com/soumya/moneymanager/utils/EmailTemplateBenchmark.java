@@ -0,0 +1,207 @@
+package com.soumya.moneymanager.utils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.soumya.moneymanager.dto.ProfileExpenseDTO;
+
+/**
+ * Compiled EmailTemplate rendering against the string concatenation NotificationService used
+ * before, for both notification mails. Each benchmark invocation renders RENDERS mails, so the
+ * score is the time for 100k renders. Run with:
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/test-classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.soumya.moneymanager.utils.EmailTemplateBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+  static final int RENDERS = 100_000;
+
+  private static final String FRONTEND_URL = "http://localhost:5173";
+  private static final int ROWS_PER_SUMMARY = 5;
+
+  private EmailTemplate reminderTemplate;
+  private EmailTemplate summaryTemplate;
+  private EmailTemplate summaryRowTemplate;
+
+  // A small rotating set of recipients, so names differ between renders
+  private String[] names;
+  private List<List<ProfileExpenseDTO>> expenses;
+
+  @Setup
+  public void setUp() {
+    reminderTemplate = EmailTemplate.load("templates/email/daily-reminder.html");
+    summaryTemplate = EmailTemplate.load("templates/email/daily-summary.html");
+    summaryRowTemplate = EmailTemplate.load("templates/email/daily-summary-row.html");
+
+    names = new String[64];
+    expenses = new ArrayList<>();
+    for (int i = 0; i < names.length; i++) {
+      names[i] = "User Number " + i;
+      List<ProfileExpenseDTO> rows = new ArrayList<>();
+      for (int r = 0; r < ROWS_PER_SUMMARY; r++) {
+        rows.add(new ProfileExpenseDTO((long) i, "Expense " + r, BigDecimal.valueOf(100 + i * 7 + r, 2), "Category " + r));
+      }
+      expenses.add(rows);
+    }
+  }
+
+  @Benchmark
+  public void reminderConcatenation(Blackhole blackhole) {
+    for (int i = 0; i < RENDERS; i++) {
+      blackhole.consume(legacyReminder(names[i & 63]));
+    }
+  }
+
+  @Benchmark
+  public void reminderTemplate(Blackhole blackhole) {
+    for (int i = 0; i < RENDERS; i++) {
+      blackhole.consume(reminderTemplate.render(Map.of("fullName", names[i & 63], "dashboardUrl", FRONTEND_URL)));
+    }
+  }
+
+  @Benchmark
+  public void summaryConcatenation(Blackhole blackhole) {
+    for (int i = 0; i < RENDERS; i++) {
+      blackhole.consume(legacySummary(names[i & 63], expenses.get(i & 63)));
+    }
+  }
+
+  @Benchmark
+  public void summaryTemplate(Blackhole blackhole) {
+    for (int i = 0; i < RENDERS; i++) {
+      blackhole.consume(templateSummary(names[i & 63], expenses.get(i & 63)));
+    }
+  }
+
+  // Same as NotificationService.renderSummary
+  private String templateSummary(String fullName, List<ProfileExpenseDTO> todayExpense) {
+    EmailTemplate.Fragment rows = out -> {
+      int serial = 1;
+      for (ProfileExpenseDTO expense : todayExpense) {
+        summaryRowTemplate.renderTo(out, Map.of(
+            "rowColor", (serial % 2 == 0) ? "#f2f2f2" : "#ffffff",
+            "serial", serial,
+            "name", expense.getName() != null ? expense.getName() : "N/A",
+            "amount", expense.getAmount() != null ? expense.getAmount() : "N/A",
+            "categoryName", expense.getCategoryName() != null ? expense.getCategoryName() : "N/A"));
+        serial++;
+      }
+    };
+    return summaryTemplate.render(Map.of("fullName", fullName, "dashboardUrl", FRONTEND_URL, "rows", rows));
+  }
+
+  // The concatenation NotificationService used before the templates (no escaping)
+  private static String legacyReminder(String fullName) {
+    return "<!DOCTYPE html>"
+        + "<html>"
+        + "<head>"
+        + "<meta charset='UTF-8'>"
+        + "<style>"
+        + "body { font-family: Arial, sans-serif; background-color: #f4f4f4; margin: 0; padding: 0; }"
+        + ".container { max-width: 600px; margin: 20px auto; background: #ffffff; padding: 20px; "
+        + "box-shadow: 0 2px 8px rgba(0,0,0,0.1); border-radius: 10px; }"
+        + "h2 { color: #333333; }"
+        + "p { font-size: 16px; color: #555555; line-height: 1.5; }"
+        + ".button { display: inline-block; background-color: #4CAF50; color: white; "
+        + "padding: 12px 25px; text-decoration: none; font-size: 16px; border-radius: 5px; }"
+        + ".footer { margin-top: 20px; font-size: 13px; color: #888888; text-align: center; }"
+        + "</style>"
+        + "</head>"
+        + "<body>"
+        + "<div class='container'>"
+        + "<h2>Hi " + fullName + ",</h2>"
+        + "<p>This is a friendly reminder for your <b>daily expense and income</b>. "
+        + "You can check the detailed summary in your Money Manager Dashboard.</p>"
+        + "<p style='text-align: center;'>"
+        + "<a href='" + FRONTEND_URL + "' class='button'>View Dashboard</a>"
+        + "</p>"
+        + "<p>Stay on top of your finances 🚀</p>"
+        + "<div class='footer'>"
+        + "<p>Thanks,<br>Money Manager Team</p>"
+        + "</div>"
+        + "</div>"
+        + "</body>"
+        + "</html>";
+  }
+
+  private static String legacySummary(String fullName, List<ProfileExpenseDTO> todayExpense) {
+    StringBuilder table = new StringBuilder();
+    table.append("<table style='width:100%; border-collapse:collapse; margin-top:20px;'>")
+         .append("<tr style='background-color:#4CAF50; color:white;'>")
+         .append("<th style='padding:8px; border:1px solid #ddd;'>S.No</th>")
+         .append("<th style='padding:8px; border:1px solid #ddd;'>Name</th>")
+         .append("<th style='padding:8px; border:1px solid #ddd;'>Amount</th>")
+         .append("<th style='padding:8px; border:1px solid #ddd;'>Category</th>")
+         .append("</tr>");
+
+    int serial = 1;
+    for (ProfileExpenseDTO expense : todayExpense) {
+        String bgColor = (serial % 2 == 0) ? "#f2f2f2" : "#ffffff";
+        table.append("<tr style='background-color:" + bgColor + ";'>")
+             .append("<td style='padding:8px; border:1px solid #ddd; text-align:center;'>").append(serial).append("</td>")
+             .append("<td style='padding:8px; border:1px solid #ddd;'>")
+             .append(expense.getName() != null ? expense.getName() : "N/A")
+             .append("</td>")
+             .append("<td style='padding:8px; border:1px solid #ddd; text-align:right;'>")
+             .append(expense.getAmount() != null ? expense.getAmount() : "N/A")
+             .append("</td>")
+             .append("<td style='padding:8px; border:1px solid #ddd; text-align:right;'>")
+             .append(expense.getCategoryName() != null ? expense.getCategoryName() : "N/A")
+             .append("</td>")
+             .append("</tr>");
+        serial++;
+    }
+    table.append("</table>");
+
+    return "<!DOCTYPE html>"
+        + "<html>"
+        + "<head><meta charset='UTF-8'></head>"
+        + "<body style='font-family: Arial, sans-serif; background-color: #f9f9f9; padding:20px;'>"
+        + "<div style='max-width:600px; margin:0 auto; background:#ffffff; padding:20px; "
+        + "box-shadow:0 2px 8px rgba(0,0,0,0.1); border-radius:10px;'>"
+        + "<h2 style='color:#333;'>Hi " + fullName + ",</h2>"
+        + "<p style='font-size:15px; color:#555;'>Here is your <b>daily expense summary</b> for today:</p>"
+        + table.toString()
+        + "<p style='text-align:center; margin:20px 0;'>"
+        + "<a href='" + FRONTEND_URL + "' style='background:#4CAF50; color:white; padding:12px 25px; "
+        + "text-decoration:none; font-size:15px; border-radius:5px;'>View Dashboard</a>"
+        + "</p>"
+        + "<p style='color:#777; font-size:13px;'>Stay on top of your finances 🚀</p>"
+        + "<div style='margin-top:20px; font-size:12px; color:#888; text-align:center;'>"
+        + "Thanks,<br>Money Manager Team"
+        + "</div>"
+        + "</div>"
+        + "</body></html>";
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(EmailTemplateBenchmark.class.getSimpleName()).build()).run();
+  }
+}